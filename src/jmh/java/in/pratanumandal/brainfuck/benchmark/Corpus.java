@@ -0,0 +1,53 @@
+package in.pratanumandal.brainfuck.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Programs used by the benchmarks.
+ * Names refer to the bundled corpus, other programs can be given as file paths.
+ */
+public class Corpus {
+
+    public static final String[] PROGRAMS = { "nested", "scan", "multiply", "output" };
+
+    public static String load(String program) {
+        try {
+            Path path = Path.of(program);
+            if (Files.isRegularFile(path)) {
+                return Files.readString(path, StandardCharsets.UTF_8);
+            }
+
+            String resource = program.equals("welcome") ? "bf/welcome.bf" : "corpus/" + program + ".b";
+            try (InputStream inputStream = Corpus.class.getClassLoader().getResourceAsStream(resource)) {
+                if (inputStream == null) {
+                    throw new IllegalArgumentException("Unknown program " + program);
+                }
+                return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Concatenate all programs of the corpus until the source has at least the given length.
+     */
+    public static String generate(int length) {
+        StringBuilder builder = new StringBuilder(length);
+
+        while (builder.length() < length) {
+            for (String program : PROGRAMS) {
+                builder.append(load(program));
+            }
+            builder.append(load("welcome"));
+        }
+
+        return builder.toString();
+    }
+
+}
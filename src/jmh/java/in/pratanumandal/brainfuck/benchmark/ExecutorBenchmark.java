@@ -0,0 +1,101 @@
+package in.pratanumandal.brainfuck.benchmark;
+
+import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.engine.io.Console;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.Executor;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.BytecodeCompiler;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.CompiledProgram;
+import in.pratanumandal.brainfuck.engine.processor.optimizer.Optimizer;
+import in.pratanumandal.brainfuck.engine.tape.Tape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Throughput of the interpreter and the bytecode compiled programs on the corpus.
+ * Other programs can be benchmarked with -p program=path/to/program.b
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorBenchmark {
+
+    private static final int MEMORY_SIZE = 30000;
+
+    @Param({ "nested", "scan", "multiply", "output" })
+    private String program;
+
+    @Param({ "8", "16", "32" })
+    private int cellSize;
+
+    @Param({ "interpreter", "compiler" })
+    private String engine;
+
+    private Tape memory;
+    private Executor executor;
+    private CompiledProgram compiledProgram;
+    private CountingConsole console;
+
+    @Setup
+    public void setup() {
+        String code = Utils.minifyBrainfuck(Corpus.load(this.program));
+        long[] instructions = Optimizer.optimize(code, this.cellSize, MEMORY_SIZE);
+
+        this.memory = Tape.getTape(this.cellSize, MEMORY_SIZE);
+        this.console = new CountingConsole();
+        this.executor = new Executor(instructions, this.memory, false, new AtomicBoolean(false), this.console);
+
+        if (this.engine.equals("compiler")) {
+            this.compiledProgram = BytecodeCompiler.compile(instructions, this.cellSize, MEMORY_SIZE, false);
+        }
+    }
+
+    @Benchmark
+    public long execute() throws Throwable {
+        this.memory.clear();
+
+        if (this.compiledProgram != null) this.executor.execute(this.compiledProgram);
+        else this.executor.execute();
+
+        return this.console.checksum;
+    }
+
+    /**
+     * Console without input which only keeps a checksum of the output.
+     */
+    private static class CountingConsole implements Console {
+
+        private long checksum;
+
+        @Override
+        public void write(long codePoint) {
+            this.checksum = this.checksum * 31 + codePoint;
+        }
+
+        @Override
+        public int read() {
+            return 0;
+        }
+
+        @Override
+        public void error(String message) {
+            throw new IllegalStateException(message);
+        }
+
+    }
+
+}
@@ -0,0 +1,48 @@
+package in.pratanumandal.brainfuck.benchmark;
+
+import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.engine.processor.optimizer.Optimizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-processing of large sources into instructions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptimizerBenchmark {
+
+    @Param({ "100000", "1000000" })
+    private int length;
+
+    @Param({ "8", "32" })
+    private int cellSize;
+
+    private String code;
+
+    @Setup
+    public void setup() {
+        this.code = Utils.minifyBrainfuck(Corpus.generate(this.length));
+    }
+
+    @Benchmark
+    public long[] optimize() {
+        return Optimizer.optimize(this.code, this.cellSize, 30000);
+    }
+
+}
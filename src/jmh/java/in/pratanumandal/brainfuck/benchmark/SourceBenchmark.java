@@ -0,0 +1,64 @@
+package in.pratanumandal.brainfuck.benchmark;
+
+import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.tool.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Source transformations used by the editor tools.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourceBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int length;
+
+    private String source;
+    private String minified;
+    private String text;
+
+    @Setup
+    public void setup() {
+        this.source = Corpus.generate(this.length);
+        this.minified = Utils.minifyBrainfuck(this.source);
+
+        // printable text taken from the comments of the welcome program
+        String welcome = Corpus.load("welcome").replaceAll("[^ -~\n]", "");
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < this.length / 10) builder.append(welcome);
+        this.text = builder.substring(0, this.length / 10);
+    }
+
+    @Benchmark
+    public String minifyBrainfuck() {
+        return Utils.minifyBrainfuck(this.source);
+    }
+
+    @Benchmark
+    public String formatBrainfuck() {
+        return Utils.formatBrainfuck(this.minified);
+    }
+
+    @Benchmark
+    public String convertTextToBrainfuck() {
+        return Text.convertToBrainfuck(this.text);
+    }
+
+}
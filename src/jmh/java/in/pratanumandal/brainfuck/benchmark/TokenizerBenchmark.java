@@ -0,0 +1,46 @@
+package in.pratanumandal.brainfuck.benchmark;
+
+import in.pratanumandal.brainfuck.common.SyntaxTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizing of a document for the syntax highlighting.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int length;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        this.text = Corpus.generate(this.length);
+    }
+
+    @Benchmark
+    public long tokenize() {
+        long[] length = { 0 };
+        SyntaxTokenizer.tokenize(this.text, (styleClass, start, end) -> length[0] += end - start);
+        return length[0];
+    }
+
+}
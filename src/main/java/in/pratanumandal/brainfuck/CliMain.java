@@ -0,0 +1,222 @@
+package in.pratanumandal.brainfuck;
+
+import in.pratanumandal.brainfuck.common.Configuration;
+import in.pratanumandal.brainfuck.common.Constants;
+import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.engine.UnmatchedBracketException;
+import in.pratanumandal.brainfuck.engine.io.FileInputSource;
+import in.pratanumandal.brainfuck.engine.io.InputSource;
+import in.pratanumandal.brainfuck.engine.io.ReaderInputSource;
+import in.pratanumandal.brainfuck.engine.io.StreamConsole;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.Executor;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.BytecodeCompiler;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.CompilationException;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.CompiledProgram;
+import in.pratanumandal.brainfuck.engine.processor.optimizer.Optimizer;
+import in.pratanumandal.brainfuck.engine.profiler.Metrics;
+import in.pratanumandal.brainfuck.engine.tape.Tape;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a brainfuck program from the command line without the user interface.
+ */
+public class CliMain {
+
+    private static final int EXIT_SUCCESS = 0;
+    private static final int EXIT_RUNTIME_ERROR = 1;
+    private static final int EXIT_USAGE_ERROR = 2;
+
+    private static final String USAGE = "Usage: java -cp brainfuck-studio.jar " + CliMain.class.getName() + " [options] <file>\n" +
+            "\n" +
+            "Options:\n" +
+            "  -c, --cell-size <8|16|32>     cell size in bits\n" +
+            "  -m, --memory-size <size>      number of memory cells (1000 to 50000)\n" +
+            "  -i, --input <file>            read input from a file instead of standard input\n" +
+            "  -w, --wrap                    wrap the memory pointer around\n" +
+            "      --no-wrap                 report out of bounds memory access\n" +
+            "      --compile                 compile the program to bytecode before execution\n" +
+            "      --time                    print the execution time to standard error\n" +
+            "      --metrics <file>          write the execution metrics to a file as JSON\n" +
+            "  -h, --help                    print this help\n" +
+            "\n" +
+            "Options not given are taken from the " + Constants.APPLICATION_NAME + " settings.\n";
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    private static int run(String[] args) {
+        try {
+            Files.createDirectories(Path.of(Constants.CONFIG_DIR));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        int cellSize = Configuration.getCellSize();
+        int memorySize = Configuration.getMemorySize();
+        boolean wrapMemory = Configuration.getWrapMemory();
+        boolean compile = Configuration.getCompileToBytecode();
+        boolean time = false;
+        String file = null;
+        String inputFile = null;
+        String metricsFile = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-c":
+                    case "--cell-size":
+                        cellSize = Integer.parseInt(args[++i]);
+                        if (cellSize != 8 && cellSize != 16 && cellSize != 32) {
+                            return usageError("Invalid cell size " + cellSize);
+                        }
+                        break;
+
+                    case "-m":
+                    case "--memory-size":
+                        memorySize = Integer.parseInt(args[++i]);
+                        if (memorySize < 1000 || memorySize > 50000) {
+                            return usageError("Invalid memory size " + memorySize);
+                        }
+                        break;
+
+                    case "-i":
+                    case "--input":
+                        inputFile = args[++i];
+                        break;
+
+                    case "-w":
+                    case "--wrap":
+                        wrapMemory = true;
+                        break;
+
+                    case "--no-wrap":
+                        wrapMemory = false;
+                        break;
+
+                    case "--compile":
+                        compile = true;
+                        break;
+
+                    case "--time":
+                        time = true;
+                        break;
+
+                    case "--metrics":
+                        metricsFile = args[++i];
+                        break;
+
+                    case "-h":
+                    case "--help":
+                        System.out.print(USAGE);
+                        return EXIT_SUCCESS;
+
+                    default:
+                        if (args[i].startsWith("-") || file != null) {
+                            return usageError("Unexpected argument " + args[i]);
+                        }
+                        file = args[i];
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return usageError("Invalid or missing option value");
+        }
+
+        if (file == null) {
+            return usageError("No file given");
+        }
+
+        String code;
+        try {
+            code = Utils.minifyBrainfuck(Files.readString(Path.of(file), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Error: Failed to read " + file + ": " + e.getMessage());
+            return EXIT_USAGE_ERROR;
+        }
+
+        long[] instructions;
+        try {
+            instructions = Optimizer.optimize(code, cellSize, memorySize);
+        } catch (UnmatchedBracketException e) {
+            System.err.println("Error: " + e.getMessage());
+            return EXIT_USAGE_ERROR;
+        }
+
+        InputSource input;
+        if (inputFile != null) {
+            try {
+                input = new FileInputSource(Path.of(inputFile));
+            } catch (IOException e) {
+                System.err.println("Error: Failed to read " + inputFile + ": " + e.getMessage());
+                return EXIT_USAGE_ERROR;
+            }
+        }
+        else {
+            input = new ReaderInputSource(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        }
+
+        Tape memory = Tape.getTape(cellSize, memorySize);
+        AtomicBoolean kill = new AtomicBoolean(false);
+        StreamConsole console = new StreamConsole(input, System.out, System.err);
+        Executor executor = new Executor(instructions, memory, wrapMemory, kill, console);
+
+        Metrics metrics = null;
+        if (metricsFile != null) {
+            metrics = new Metrics();
+            executor.setMetrics(metrics);
+        }
+
+        long startTime = System.nanoTime();
+
+        if (compile) {
+            try {
+                CompiledProgram program = BytecodeCompiler.compile(instructions, cellSize, memorySize, wrapMemory);
+                executor.execute(program);
+            } catch (CompilationException e) {
+                System.err.println("Error: Compilation failed; falling back to interpreter");
+                executor.execute();
+            } catch (Throwable e) {
+                console.flush();
+                e.printStackTrace();
+                return EXIT_RUNTIME_ERROR;
+            }
+        }
+        else {
+            executor.execute();
+        }
+
+        console.flush();
+        input.close();
+
+        if (time) {
+            System.err.println("Execution completed in " + Utils.nanoToBestFitTimeUnits(System.nanoTime() - startTime));
+        }
+
+        if (metrics != null) {
+            metrics.stop();
+            try {
+                Files.writeString(Path.of(metricsFile), metrics.sample().toJson(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                System.err.println("Error: Failed to write " + metricsFile + ": " + e.getMessage());
+                return EXIT_RUNTIME_ERROR;
+            }
+        }
+
+        return kill.get() ? EXIT_RUNTIME_ERROR : EXIT_SUCCESS;
+    }
+
+    private static int usageError(String message) {
+        System.err.println("Error: " + message);
+        System.err.println();
+        System.err.print(USAGE);
+        return EXIT_USAGE_ERROR;
+    }
+
+}
@@ -2,6 +2,15 @@ package in.pratanumandal.brainfuck.common;
 
 public class CharacterUtils {
 
+    // symbols of the code points of 8 bit cells
+    private static final String[] SYMBOLS = new String[256];
+
+    static {
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            SYMBOLS[i] = String.valueOf(Character.toChars(i));
+        }
+    }
+
     public static Long getCodePoint(Byte value) {
         return Byte.toUnsignedLong(value);
     }
@@ -26,13 +35,29 @@ public class CharacterUtils {
         return getSymbol(getCodePoint(value));
     }
 
-    public static String getSymbol(Long codePoint) {
+    public static String getSymbol(long codePoint) {
+        if (codePoint >= 0 && codePoint < SYMBOLS.length) {
+            return SYMBOLS[(int) codePoint];
+        }
+
         try {
-            return String.valueOf(Character.toChars(codePoint.intValue()));
+            return String.valueOf(Character.toChars((int) codePoint));
         }
         catch (IllegalArgumentException e) {
             return "N/A";
         }
     }
 
+    /**
+     * Append the symbol of a code point without creating intermediate strings.
+     */
+    public static void appendSymbol(StringBuilder builder, long codePoint) {
+        if (codePoint >= 0 && codePoint <= Character.MAX_CODE_POINT) {
+            builder.appendCodePoint((int) codePoint);
+        }
+        else {
+            builder.append("N/A");
+        }
+    }
+
 }
@@ -23,6 +23,12 @@ public class Configuration {
     private Integer cellSize;
     private Integer memorySize;
     private Boolean wrapMemory;
+    private Boolean compileToBytecode;
+    private Boolean compileToJava;
+    private Integer scrollbackSize;
+    private Boolean keepTruncatedOutput;
+    private Integer journalSize;
+    private Integer checkpointInterval;
     private Integer fontSize;
     private Boolean wrapText;
     private Boolean autoComplete;
@@ -52,6 +58,12 @@ public class Configuration {
             this.cellSize = config.getInteger("cellSize", 8);
             this.memorySize = config.getInteger("memorySize", 30000);
             this.wrapMemory = config.getBoolean("wrapMemory", false);
+            this.compileToBytecode = config.getBoolean("compileToBytecode", false);
+            this.compileToJava = config.getBoolean("compileToJava", false);
+            this.scrollbackSize = config.getInteger("scrollbackSize", 1000000);
+            this.keepTruncatedOutput = config.getBoolean("keepTruncatedOutput", false);
+            this.journalSize = config.getInteger("journalSize", 1000000);
+            this.checkpointInterval = config.getInteger("checkpointInterval", 10000);
             this.fontSize = config.getInteger("fontSize", 14);
             this.wrapText = config.getBoolean("wrapText", false);
             this.autoComplete = config.getBoolean("autoComplete", true);
@@ -69,6 +81,12 @@ public class Configuration {
             this.cellSize = 8;
             this.memorySize = 30000;
             this.wrapMemory = false;
+            this.compileToBytecode = false;
+            this.compileToJava = false;
+            this.scrollbackSize = 1000000;
+            this.keepTruncatedOutput = false;
+            this.journalSize = 1000000;
+            this.checkpointInterval = 10000;
             this.fontSize = 14;
             this.wrapText = false;
             this.autoComplete = true;
@@ -92,6 +110,12 @@ public class Configuration {
         if (instance.cellSize == null || (instance.cellSize != 8 && instance.cellSize != 16  && instance.cellSize != 32)) instance.cellSize = 8;
         if (instance.memorySize == null || (instance.memorySize < 1000 || instance.memorySize > 50000)) instance.memorySize = 30000;
         if (instance.wrapMemory == null) instance.wrapMemory = false;
+        if (instance.compileToBytecode == null) instance.compileToBytecode = false;
+        if (instance.compileToJava == null) instance.compileToJava = false;
+        if (instance.scrollbackSize == null || (instance.scrollbackSize < 10000 || instance.scrollbackSize > 10000000)) instance.scrollbackSize = 1000000;
+        if (instance.keepTruncatedOutput == null) instance.keepTruncatedOutput = false;
+        if (instance.journalSize == null || (instance.journalSize < 10000 || instance.journalSize > 10000000)) instance.journalSize = 1000000;
+        if (instance.checkpointInterval == null || (instance.checkpointInterval < 100 || instance.checkpointInterval > instance.journalSize)) instance.checkpointInterval = 10000;
         if (instance.fontSize == null || (!FONT_SIZES.contains(instance.fontSize))) instance.fontSize = 14;
         if (instance.wrapText == null) instance.wrapText = false;
         if (instance.autoComplete == null) instance.autoComplete = true;
@@ -127,6 +151,36 @@ public class Configuration {
         return instance.wrapMemory;
     }
 
+    public static Boolean getCompileToBytecode() {
+        sanitize();
+        return instance.compileToBytecode;
+    }
+
+    public static Boolean getCompileToJava() {
+        sanitize();
+        return instance.compileToJava;
+    }
+
+    public static Integer getScrollbackSize() {
+        sanitize();
+        return instance.scrollbackSize;
+    }
+
+    public static Boolean getKeepTruncatedOutput() {
+        sanitize();
+        return instance.keepTruncatedOutput;
+    }
+
+    public static Integer getJournalSize() {
+        sanitize();
+        return instance.journalSize;
+    }
+
+    public static Integer getCheckpointInterval() {
+        sanitize();
+        return instance.checkpointInterval;
+    }
+
     public static Integer getFontSize() {
         sanitize();
         return instance.fontSize;
@@ -192,6 +246,36 @@ public class Configuration {
         instance.wrapMemory = wrapMemory;
     }
 
+    public static void setCompileToBytecode(Boolean compileToBytecode) {
+        sanitize();
+        instance.compileToBytecode = compileToBytecode;
+    }
+
+    public static void setCompileToJava(Boolean compileToJava) {
+        sanitize();
+        instance.compileToJava = compileToJava;
+    }
+
+    public static void setScrollbackSize(Integer scrollbackSize) {
+        sanitize();
+        instance.scrollbackSize = scrollbackSize;
+    }
+
+    public static void setKeepTruncatedOutput(Boolean keepTruncatedOutput) {
+        sanitize();
+        instance.keepTruncatedOutput = keepTruncatedOutput;
+    }
+
+    public static void setJournalSize(Integer journalSize) {
+        sanitize();
+        instance.journalSize = journalSize;
+    }
+
+    public static void setCheckpointInterval(Integer checkpointInterval) {
+        sanitize();
+        instance.checkpointInterval = checkpointInterval;
+    }
+
     public static void setFontSize(Integer fontSize) {
         sanitize();
         instance.fontSize = fontSize;
@@ -264,6 +348,12 @@ public class Configuration {
         config.addProperty("cellSize", instance.cellSize);
         config.addProperty("memorySize", instance.memorySize);
         config.addProperty("wrapMemory", instance.wrapMemory);
+        config.addProperty("compileToBytecode", instance.compileToBytecode);
+        config.addProperty("compileToJava", instance.compileToJava);
+        config.addProperty("scrollbackSize", instance.scrollbackSize);
+        config.addProperty("keepTruncatedOutput", instance.keepTruncatedOutput);
+        config.addProperty("journalSize", instance.journalSize);
+        config.addProperty("checkpointInterval", instance.checkpointInterval);
         config.addProperty("fontSize", instance.fontSize);
         config.addProperty("wrapText", instance.wrapText);
         config.addProperty("autoComplete", instance.autoComplete);
@@ -0,0 +1,58 @@
+package in.pratanumandal.brainfuck.common;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits code into the tokens styled by the syntax highlighting.
+ * Kept free of the user interface so that it can be measured on its own.
+ */
+public class SyntaxTokenizer {
+
+    private static final String POINTER_INCREMENT_PATTERN = "\\>";
+    private static final String POINTER_DECREMENT_PATTERN = "\\<";
+    private static final String DATA_INCREMENT_PATTERN = "\\+";
+    private static final String DATA_DECREMENT_PATTERN = "\\-";
+    private static final String OUTPUT_PATTERN = "\\.";
+    private static final String INPUT_PATTERN = "\\,";
+    private static final String LOOP_PATTERN = "\\[|\\]";
+    private static final String BREAKPOINT_PATTERN = "\\#";
+
+    private static final Pattern PATTERN = Pattern.compile(
+            "(?<PTRINCR>" + POINTER_INCREMENT_PATTERN + ")"
+                    + "|(?<PTRDECR>" + POINTER_DECREMENT_PATTERN + ")"
+                    + "|(?<DATAINCR>" + DATA_INCREMENT_PATTERN + ")"
+                    + "|(?<DATADECR>" + DATA_DECREMENT_PATTERN + ")"
+                    + "|(?<OUTPUT>" + OUTPUT_PATTERN + ")"
+                    + "|(?<INPUT>" + INPUT_PATTERN + ")"
+                    + "|(?<LOOP>" + LOOP_PATTERN + ")"
+                    + "|(?<BREAKPOINT>" + BREAKPOINT_PATTERN + ")"
+    );
+
+    /**
+     * Pass each token of the text in order to the consumer, with the style class it is shown with.
+     */
+    public static void tokenize(String text, TokenConsumer consumer) {
+        Matcher matcher = PATTERN.matcher(text);
+
+        while (matcher.find()) {
+            String styleClass =
+                    matcher.group("PTRINCR") != null ? "increment-pointer" :
+                            matcher.group("PTRDECR") != null ? "decrement-pointer" :
+                                    matcher.group("DATAINCR") != null ? "increment-data" :
+                                            matcher.group("DATADECR") != null ? "decrement-data" :
+                                                    matcher.group("INPUT") != null ? "input" :
+                                                            matcher.group("OUTPUT") != null ? "output" :
+                                                                    matcher.group("LOOP") != null ? "loop" :
+                                                                            matcher.group("BREAKPOINT") != null ? "breakpoint" :
+                                                                                    null; /* never happens */ assert styleClass != null;
+
+            consumer.accept(styleClass, matcher.start(), matcher.end());
+        }
+    }
+
+    public interface TokenConsumer {
+        void accept(String styleClass, int start, int end);
+    }
+
+}
@@ -1,6 +1,7 @@
 package in.pratanumandal.brainfuck.common;
 
 import in.pratanumandal.brainfuck.engine.UnmatchedBracketException;
+import in.pratanumandal.brainfuck.engine.profiler.Profile;
 import in.pratanumandal.brainfuck.gui.BrainfuckStudioApplication;
 import in.pratanumandal.brainfuck.gui.component.CodePad;
 import in.pratanumandal.brainfuck.gui.component.NotificationManager;
@@ -10,6 +11,7 @@ import in.pratanumandal.brainfuck.os.windows.WindowsUtils;
 import in.pratanumandal.brainfuck.tool.Number;
 import in.pratanumandal.brainfuck.tool.Text;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
@@ -48,6 +50,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.Callback;
 import org.apache.commons.configuration2.ex.ConfigurationException;
@@ -168,6 +171,24 @@ public class Utils {
         }
     }
 
+    public static String bytesToBestFitUnits(long bytes) {
+        DecimalFormat df = new DecimalFormat("0.00");
+
+        if (bytes < 1024) return bytes + " bytes";
+        else {
+            double kilobytes = bytes / 1024.0;
+            if (kilobytes < 1024) return df.format(kilobytes) + " KB";
+            else {
+                double megabytes = kilobytes / 1024;
+                if (megabytes < 1024) return df.format(megabytes) + " MB";
+                else {
+                    double gigabytes = megabytes / 1024;
+                    return df.format(gigabytes) + " GB";
+                }
+            }
+        }
+    }
+
     public static int[] truncate(int[] array, int newLength) {
         if (array.length < newLength) {
             return array;
@@ -322,6 +343,80 @@ public class Utils {
         wrapMemory.setSelected(Configuration.getWrapMemory());
         vBox1.getChildren().add(wrapMemory);
 
+        CheckBox compileToBytecode = new CheckBox("Compile programs to bytecode before execution");
+        compileToBytecode.setSelected(Configuration.getCompileToBytecode());
+        vBox1.getChildren().add(compileToBytecode);
+
+        CheckBox compileToJava = new CheckBox("Compile programs with the Java compiler before execution");
+        compileToJava.setSelected(Configuration.getCompileToJava());
+        vBox1.getChildren().add(compileToJava);
+
+        // only one compiler can be used
+        compileToBytecode.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal) compileToJava.setSelected(false);
+        });
+        compileToJava.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal) compileToBytecode.setSelected(false);
+        });
+
+        HBox scrollbackSizeBox = new HBox();
+        scrollbackSizeBox.setSpacing(10);
+        scrollbackSizeBox.setAlignment(Pos.CENTER_LEFT);
+        vBox1.getChildren().add(scrollbackSizeBox);
+
+        Label scrollbackSizeLabel = new Label("Terminal scrollback (in characters)");
+        scrollbackSizeBox.getChildren().add(scrollbackSizeLabel);
+
+        TextField scrollbackSize = new TextField();
+        scrollbackSize.setPromptText("In range 10000 to 10000000");
+        scrollbackSize.textProperty().addListener((obs, oldVal, newVal) -> {
+            if (!newVal.matches("\\d*")) {
+                scrollbackSize.setText(newVal.replaceAll("[^\\d]", ""));
+            }
+        });
+        scrollbackSize.setText(String.valueOf(Configuration.getScrollbackSize()));
+        scrollbackSizeBox.getChildren().add(scrollbackSize);
+
+        CheckBox keepTruncatedOutput = new CheckBox("Keep output beyond the scrollback in a temporary file");
+        keepTruncatedOutput.setSelected(Configuration.getKeepTruncatedOutput());
+        vBox1.getChildren().add(keepTruncatedOutput);
+
+        HBox journalSizeBox = new HBox();
+        journalSizeBox.setSpacing(10);
+        journalSizeBox.setAlignment(Pos.CENTER_LEFT);
+        vBox1.getChildren().add(journalSizeBox);
+
+        Label journalSizeLabel = new Label("Debugger step back history (in steps)");
+        journalSizeBox.getChildren().add(journalSizeLabel);
+
+        TextField journalSize = new TextField();
+        journalSize.setPromptText("In range 10000 to 10000000");
+        journalSize.textProperty().addListener((obs, oldVal, newVal) -> {
+            if (!newVal.matches("\\d*")) {
+                journalSize.setText(newVal.replaceAll("[^\\d]", ""));
+            }
+        });
+        journalSize.setText(String.valueOf(Configuration.getJournalSize()));
+        journalSizeBox.getChildren().add(journalSize);
+
+        HBox checkpointIntervalBox = new HBox();
+        checkpointIntervalBox.setSpacing(10);
+        checkpointIntervalBox.setAlignment(Pos.CENTER_LEFT);
+        vBox1.getChildren().add(checkpointIntervalBox);
+
+        Label checkpointIntervalLabel = new Label("Debugger memory snapshot interval (in steps)");
+        checkpointIntervalBox.getChildren().add(checkpointIntervalLabel);
+
+        TextField checkpointInterval = new TextField();
+        checkpointInterval.setPromptText("In range 100 to history size");
+        checkpointInterval.textProperty().addListener((obs, oldVal, newVal) -> {
+            if (!newVal.matches("\\d*")) {
+                checkpointInterval.setText(newVal.replaceAll("[^\\d]", ""));
+            }
+        });
+        checkpointInterval.setText(String.valueOf(Configuration.getCheckpointInterval()));
+        checkpointIntervalBox.getChildren().add(checkpointInterval);
+
         // editor
         Tab editor = new Tab("Editor");
         editor.setClosable(false);
@@ -378,11 +473,11 @@ public class Utils {
 
         alert.setResizable(true);
 
-        alert.getDialogPane().setPrefSize(500, 350);
+        alert.getDialogPane().setPrefSize(500, 400);
 
         Stage alertStage = (Stage) alert.getDialogPane().getScene().getWindow();
         alertStage.setMinWidth(450);
-        alertStage.setMinHeight(350);
+        alertStage.setMinHeight(400);
 
         WindowsUtils.setStageStyle(alertStage);
 
@@ -407,6 +502,45 @@ public class Utils {
                     error.initOwner(stage);
                     error.showAndWait();
                     valid = false;
+                    continue;
+                }
+
+                try {
+                    Integer scrollback = Integer.valueOf(scrollbackSize.getText());
+                    if (scrollback < 10000 || scrollback > 10000000) throw new NumberFormatException("Invalid scrollback size");
+                }
+                catch (NumberFormatException e) {
+                    Alert error = new Alert(Alert.AlertType.ERROR, "Terminal scrollback must be in range 10000 to 10000000");
+                    WindowsUtils.setStageStyle((Stage) error.getDialogPane().getScene().getWindow());
+                    error.initOwner(stage);
+                    error.showAndWait();
+                    valid = false;
+                    continue;
+                }
+
+                try {
+                    Integer journal = Integer.valueOf(journalSize.getText());
+                    if (journal < 10000 || journal > 10000000) throw new NumberFormatException("Invalid history size");
+                }
+                catch (NumberFormatException e) {
+                    Alert error = new Alert(Alert.AlertType.ERROR, "Debugger step back history must be in range 10000 to 10000000");
+                    WindowsUtils.setStageStyle((Stage) error.getDialogPane().getScene().getWindow());
+                    error.initOwner(stage);
+                    error.showAndWait();
+                    valid = false;
+                    continue;
+                }
+
+                try {
+                    Integer interval = Integer.valueOf(checkpointInterval.getText());
+                    if (interval < 100 || interval > Integer.valueOf(journalSize.getText())) throw new NumberFormatException("Invalid snapshot interval");
+                }
+                catch (NumberFormatException e) {
+                    Alert error = new Alert(Alert.AlertType.ERROR, "Debugger memory snapshot interval must be in range 100 to the step back history");
+                    WindowsUtils.setStageStyle((Stage) error.getDialogPane().getScene().getWindow());
+                    error.initOwner(stage);
+                    error.showAndWait();
+                    valid = false;
                 }
             }
             else break;
@@ -419,6 +553,12 @@ public class Utils {
             else Configuration.setCellSize(32);
             Configuration.setMemorySize(Integer.valueOf(memorySize.getText()));
             Configuration.setWrapMemory(wrapMemory.isSelected());
+            Configuration.setCompileToBytecode(compileToBytecode.isSelected());
+            Configuration.setCompileToJava(compileToJava.isSelected());
+            Configuration.setScrollbackSize(Integer.valueOf(scrollbackSize.getText()));
+            Configuration.setKeepTruncatedOutput(keepTruncatedOutput.isSelected());
+            Configuration.setJournalSize(Integer.valueOf(journalSize.getText()));
+            Configuration.setCheckpointInterval(Integer.valueOf(checkpointInterval.getText()));
             Configuration.setWrapText(wrapText.isSelected());
             Configuration.setAutoComplete(autoComplete.isSelected());
             Configuration.setSyntaxHighlighting(syntaxHighlighting.isSelected());
@@ -761,6 +901,125 @@ public class Utils {
         }
     }
 
+    public static void showProfile(TabData currentTab, Profile profile) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, null, ButtonType.CLOSE);
+
+        Image image = new Image(Utils.class.getClassLoader().getResourceAsStream("images/search.png"));
+        ImageView imageView = new ImageView();
+        imageView.setImage(image);
+        imageView.setFitHeight(32);
+        imageView.setFitWidth(32);
+        StackPane imagePane = new StackPane();
+        imagePane.setPadding(new Insets(5));
+        imagePane.getChildren().add(imageView);
+        alert.setGraphic(imagePane);
+
+        alert.setTitle(Constants.APPLICATION_NAME);
+        alert.setHeaderText("Hottest Loops");
+
+        VBox vBox = new VBox();
+        vBox.setSpacing(15);
+
+        Label label = new Label(currentTab.getTab().getText() + " executed " + profile.getTotalCount() + " instructions");
+        vBox.getChildren().add(label);
+
+        TableView<Profile.Loop> tableView = new TableView<>();
+        vBox.getChildren().add(tableView);
+        VBox.setVgrow(tableView, Priority.ALWAYS);
+
+        tableView.setItems(FXCollections.observableArrayList(profile.getLoops()));
+
+        // line column
+        TableColumn<Profile.Loop, Integer> lineCol = new TableColumn<>("Line");
+        lineCol.setCellValueFactory(new PropertyValueFactory<>("line"));
+        lineCol.setMinWidth(50);
+        lineCol.setPrefWidth(50);
+
+        // column column
+        TableColumn<Profile.Loop, Integer> columnCol = new TableColumn<>("Column");
+        columnCol.setCellValueFactory(new PropertyValueFactory<>("column"));
+        columnCol.setMinWidth(60);
+        columnCol.setPrefWidth(60);
+
+        // iterations column
+        TableColumn<Profile.Loop, Long> iterationsCol = new TableColumn<>("Iterations");
+        iterationsCol.setCellValueFactory(new PropertyValueFactory<>("iterations"));
+        iterationsCol.setMinWidth(90);
+        iterationsCol.setPrefWidth(100);
+
+        // entries column
+        TableColumn<Profile.Loop, Long> entriesCol = new TableColumn<>("Entries");
+        entriesCol.setCellValueFactory(new PropertyValueFactory<>("entries"));
+        entriesCol.setMinWidth(80);
+        entriesCol.setPrefWidth(90);
+
+        // share column
+        TableColumn<Profile.Loop, Double> shareCol = new TableColumn<>("Share");
+        shareCol.setCellValueFactory(new PropertyValueFactory<>("share"));
+        shareCol.setCellFactory(column -> new TableCell<Profile.Loop, Double>() {
+            @Override
+            protected void updateItem(Double share, boolean empty) {
+                super.updateItem(share, empty);
+
+                if (empty || share == null) setText(null);
+                else setText(String.format("%.1f%%", share * 100));
+            }
+        });
+        shareCol.setMinWidth(60);
+        shareCol.setPrefWidth(70);
+
+        // loop column
+        TableColumn<Profile.Loop, String> loopCol = new TableColumn<>("Loop");
+        loopCol.setCellValueFactory(new PropertyValueFactory<>("snippet"));
+        loopCol.setMinWidth(100);
+        loopCol.setPrefWidth(250);
+        loopCol.getStyleClass().add("left");
+        loopCol.getStyleClass().add("code");
+
+        // select the loop in the code on double click
+        tableView.setRowFactory(t -> {
+            TableRow<Profile.Loop> row = new TableRow<>();
+            row.setOnMouseClicked(event -> {
+                if (event.getClickCount() == 2 && !row.isEmpty()) {
+                    CodePad codePad = currentTab.getCodePad();
+                    if (codePad.getText().equals(profile.getText())) {
+                        codePad.selectRange(row.getItem().getStart(), row.getItem().getEnd());
+                        codePad.requestFollowCaret();
+                    }
+                }
+            });
+            return row;
+        });
+
+        tableView.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
+        tableView.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        tableView.getColumns().addAll(lineCol, columnCol, iterationsCol, entriesCol, shareCol, loopCol);
+
+        iterationsCol.setSortType(TableColumn.SortType.DESCENDING);
+        tableView.getSortOrder().add(iterationsCol);
+        tableView.sort();
+
+        Label placeholder = new Label("No loops in program");
+        tableView.setPlaceholder(placeholder);
+
+        alert.getDialogPane().setContent(vBox);
+
+        alert.setResizable(true);
+
+        alert.getDialogPane().setPrefSize(700, 450);
+
+        Stage alertStage = (Stage) alert.getDialogPane().getScene().getWindow();
+        alertStage.setMinWidth(400);
+        alertStage.setMinHeight(300);
+
+        WindowsUtils.setStageStyle(alertStage);
+
+        // keep the code editable to follow the loops
+        alert.initModality(Modality.NONE);
+        alert.initOwner(currentTab.getTab().getTabPane().getScene().getWindow());
+        alert.show();
+    }
+
     private static Snippets.Snippet modifySnippet(Snippets.Snippet snippet, Stage stage) {
         boolean isNewSnippet = false;
         if (snippet == null) {
@@ -49,4 +49,17 @@ public class Memory {
         return CharacterUtils.getSymbol(data.get());
     }
 
+    // rows are recreated on demand, so the same address is the same row
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return address.get() == ((Memory) o).address.get();
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(address.get());
+    }
+
 }
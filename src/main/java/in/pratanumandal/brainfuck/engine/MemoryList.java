@@ -0,0 +1,74 @@
+package in.pratanumandal.brainfuck.engine;
+
+import in.pratanumandal.brainfuck.engine.tape.Tape;
+import javafx.collections.ObservableListBase;
+
+import java.util.Objects;
+
+/**
+ * Memory cells as a list for the memory table.
+ * Rows are created on demand from the cell values, so only the visible cells have row objects.
+ */
+public class MemoryList extends ObservableListBase<Memory> {
+
+    private final int size;
+
+    // memory cells shown, null before any are
+    private Tape tape;
+
+    private int pointer;
+
+    public MemoryList(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Read the cell values from the given tape.
+     * The table must be refreshed to show them.
+     */
+    public void setTape(Tape tape) {
+        this.tape = tape;
+    }
+
+    public int getPointer() {
+        return pointer;
+    }
+
+    public void setPointer(int pointer) {
+        int oldPointer = this.pointer;
+        if (pointer == oldPointer) return;
+
+        Memory oldRow = this.get(oldPointer);
+        this.pointer = pointer;
+
+        beginChange();
+        nextSet(oldPointer, oldRow);
+        nextSet(pointer, this.get(pointer));
+        endChange();
+    }
+
+    /**
+     * Notify the table that the value of a cell changed.
+     */
+    public void update(int index) {
+        beginChange();
+        nextSet(index, this.get(index));
+        endChange();
+    }
+
+    @Override
+    public Memory get(int index) {
+        Objects.checkIndex(index, this.size);
+
+        Memory memory = new Memory(index + 1);
+        memory.setData(this.tape == null ? 0 : this.tape.getCodePoint(index));
+        memory.setCurrent(index == this.pointer);
+        return memory;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
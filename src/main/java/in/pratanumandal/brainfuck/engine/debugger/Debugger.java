@@ -1,23 +1,36 @@
 package in.pratanumandal.brainfuck.engine.debugger;
 
+import in.pratanumandal.brainfuck.common.CharacterUtils;
 import in.pratanumandal.brainfuck.common.Configuration;
 import in.pratanumandal.brainfuck.common.Constants;
 import in.pratanumandal.brainfuck.common.Utils;
 import in.pratanumandal.brainfuck.engine.UnmatchedBracketException;
+import in.pratanumandal.brainfuck.engine.io.Console;
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.Executor;
+import in.pratanumandal.brainfuck.engine.processor.optimizer.Optimizer;
+import in.pratanumandal.brainfuck.engine.processor.optimizer.SourceMap;
+import in.pratanumandal.brainfuck.engine.tape.Tape;
 import in.pratanumandal.brainfuck.gui.component.CodePad;
+import in.pratanumandal.brainfuck.gui.component.DebugRefresher;
+import in.pratanumandal.brainfuck.gui.component.NotificationManager;
 import in.pratanumandal.brainfuck.gui.component.TabData;
 import in.pratanumandal.brainfuck.os.windows.WindowsUtils;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Slider;
 import javafx.stage.Stage;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Stack;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
-public abstract class Debugger implements Runnable {
+public abstract class Debugger implements Runnable, Console {
 
     protected TabData tabData;
 
@@ -25,16 +38,48 @@ public abstract class Debugger implements Runnable {
 
     protected CodePad codePad;
 
+    // publishes the memory, the data pointer and the position once per frame
+    protected final DebugRefresher refresher;
+
     protected String code;
 
     protected final AtomicBoolean pause;
     protected final AtomicBoolean kill;
 
+    // run the optimized program until a breakpoint instead of stepping
+    protected final AtomicBoolean fastForward;
+
+    // stops the optimized program when fast forwarding is paused or stopped
+    private final AtomicBoolean interrupt;
+
+    // going back requested while paused
+    private static final int STEP_BACK = 1;
+    private static final int RUN_BACK = 2;
+    private final AtomicInteger goBack;
+
+    // steps which can be undone, cleared when the code changes
+    private Journal journal;
+    private volatile boolean journalValid;
+
     protected Thread thread;
 
+    protected Tape memory;
+
+    protected int dataPointer;
+
+    protected final int cellSize;
     protected final int memorySize;
     protected final boolean wrapMemory;
 
+    // optimized program of the code, rebuilt when the code or the breakpoint setting changes
+    private String optimizedCode;
+    private boolean optimizedBreakpoints;
+    private long[] instructions;
+    private SourceMap sourceMap;
+
+    // instruction of the loop bracket at each position of the code, -1 if none
+    private int[] entries;
+
     protected final ChangeListener<String> textChangeListener;
 
     protected Debugger(TabData tabData) {
@@ -44,14 +89,22 @@ public abstract class Debugger implements Runnable {
 
         this.codePad = tabData.getCodePad();
 
+        this.refresher = new DebugRefresher(tabData);
+
         this.pause = new AtomicBoolean(false);
         this.kill = new AtomicBoolean(true);
 
+        this.fastForward = new AtomicBoolean(false);
+        this.interrupt = new AtomicBoolean(false);
+        this.goBack = new AtomicInteger(0);
+
+        this.cellSize = Configuration.getCellSize();
         this.memorySize = Configuration.getMemorySize();
         this.wrapMemory = Configuration.getWrapMemory();
 
         this.textChangeListener = (obs, oldVal, newVal) -> {
             this.code = tabData.getFileText();
+            this.journalValid = false;
             try {
                 this.initializeBrackets();
             } catch (UnmatchedBracketException e) { }
@@ -67,8 +120,24 @@ public abstract class Debugger implements Runnable {
             this.kill.set(false);
         }
 
+        this.fastForward.set(false);
+        this.goBack.set(0);
+        this.dataPointer = 0;
+
+        if (this.journal == null) {
+            this.journal = new Journal(Configuration.getJournalSize(), Configuration.getCheckpointInterval(),
+                    this.cellSize, this.memorySize, this::loadTape);
+        }
+        this.journal.clear();
+        this.journalValid = true;
+
+        this.tabData.getMemory().setTape(this.memory);
         this.clearMemory();
 
+        this.refresher.setPointer(0);
+        this.refresher.setPosition(-1);
+        this.refresher.start();
+
         try {
             this.initializeBrackets();
         } catch (UnmatchedBracketException e) { }
@@ -79,13 +148,176 @@ public abstract class Debugger implements Runnable {
         thread.start();
 
         this.tabData.getDebugResumeButton().setDisable(true);
+        this.tabData.getDebugFastForwardButton().setDisable(true);
+        this.tabData.getDebugRunBackButton().setDisable(true);
+        this.tabData.getDebugStepBackButton().setDisable(true);
         this.tabData.getDebugPauseButton().setDisable(false);
         this.tabData.getDebugStepButton().setDisable(false);
         this.tabData.getDebugStopButton().setDisable(false);
         this.tabData.getDebugCloseButton().setDisable(true);
     }
 
-    protected abstract void clearMemory();
+    protected void clearMemory() {
+        this.memory.clear();
+
+        this.refresher.markAll();
+    }
+
+    /**
+     * Show all the memory cells and the data pointer, after running without updating them.
+     */
+    protected void showMemory() {
+        this.refresher.markAll();
+        this.refresher.setPointer(this.dataPointer);
+    }
+
+    /**
+     * Copy the memory cells to the tape.
+     */
+    private void loadTape(Tape tape) {
+        for (int i = 0; i < this.memorySize; i++) {
+            tape.set(i, this.memory.get(i));
+        }
+    }
+
+    /**
+     * Copy the tape to the memory cells.
+     */
+    private void storeTape(Tape tape) {
+        for (int i = 0; i < this.memorySize; i++) {
+            this.memory.set(i, tape.get(i));
+        }
+    }
+
+    @Override
+    public void run() {
+        AtomicReference<NotificationManager.Notification> notificationAtomicReference = new AtomicReference<>();
+        Utils.runAndWait(() -> notificationAtomicReference.set(Utils.addNotification(tabData.getTab().getText() + " debugging started")));
+        NotificationManager.Notification notification = notificationAtomicReference.get();
+
+        Slider debugSpeed = tabData.getDebugSpeed();
+
+        for (int i = 0; i < code.length() && !this.kill.get(); i++) {
+            // hand loops over to the optimized program and step silently in between
+            boolean fastForward = this.fastForward.get();
+            if (fastForward) {
+                i = this.runToBreakpoint(i);
+                if (i == code.length() || this.kill.get()) break;
+            }
+            else {
+                this.refresher.setPosition(i);
+            }
+
+            int position = i;
+            char ch = code.charAt(i);
+
+            this.record(i, ch);
+
+            if (ch == '#' && tabData.getDebugBreakpointButton().isSelected()) {
+                this.pause();
+            } else if (ch == '>') {
+                this.dataPointer++;
+                if (this.dataPointer >= this.memorySize) {
+                    if (this.wrapMemory) {
+                        this.dataPointer -= this.memorySize;
+                        if (!fastForward) this.refresher.setPointer(this.dataPointer);
+                    }
+                    else {
+                        tabData.getDebugTerminal().writeError("\nError: Memory index out of bounds " + this.dataPointer + "\n");
+                        this.stop(false);
+                    }
+                }
+                else {
+                    if (!fastForward) this.refresher.setPointer(this.dataPointer);
+                }
+            } else if (ch == '<') {
+                this.dataPointer--;
+                if (this.dataPointer < 0) {
+                    if (this.wrapMemory) {
+                        this.dataPointer += this.memorySize;
+                        if (!fastForward) this.refresher.setPointer(this.dataPointer);
+                    }
+                    else {
+                        tabData.getDebugTerminal().writeError("\nError: Memory index out of bounds " + this.dataPointer + "\n");
+                        this.stop(false);
+                    }
+                }
+                else {
+                    if (!fastForward) this.refresher.setPointer(this.dataPointer);
+                }
+            } else if (ch == '+') {
+                this.memory.add(this.dataPointer, 1);
+
+                if (!fastForward) this.refresher.markCell(this.dataPointer);
+            } else if (ch == '-') {
+                this.memory.add(this.dataPointer, -1);
+
+                if (!fastForward) this.refresher.markCell(this.dataPointer);
+            } else if (ch == '.') {
+                String symbol = CharacterUtils.getSymbol(this.memory.getCodePoint(this.dataPointer));
+                tabData.getDebugTerminal().write(symbol);
+            } else if (ch == ',') {
+                Character character = tabData.getDebugTerminal().readChar();
+                this.memory.set(this.dataPointer, character == null ? 0 : character);
+
+                if (!fastForward) this.refresher.markCell(this.dataPointer);
+            } else if (ch == '[') {
+                if (this.memory.isZero(this.dataPointer)) {
+                    Integer other = brackets.get(i);
+                    try {
+                        if (other == null) Utils.throwUnmatchedBracketException(code, i + 1);
+                        else i = other;
+                    } catch (UnmatchedBracketException e) {
+                        showUnmatchedBrackets(e);
+                        this.kill.set(true);
+                    }
+                }
+            } else if (ch == ']') {
+                if (!this.memory.isZero(this.dataPointer)) {
+                    Integer other = brackets.get(i);
+                    try {
+                        if (other == null) Utils.throwUnmatchedBracketException(code, i + 1);
+                        else i = other;
+                    } catch (UnmatchedBracketException e) {
+                        showUnmatchedBrackets(e);
+                        this.kill.set(true);
+                    }
+                }
+            }
+
+            if (fastForward) {
+                // show where fast forwarding stopped
+                if (!this.fastForward.get()) {
+                    this.refresher.setPosition(position);
+                    this.showMemory();
+                }
+            }
+            else {
+                try {
+                    int delay = (int) (debugSpeed.getMax() - debugSpeed.getValue() + debugSpeed.getMajorTickUnit());
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            i = this.waitIfPaused(i);
+        }
+
+        // show the memory left by fast forwarding to the end
+        if (this.fastForward.getAndSet(false)) this.showMemory();
+
+        Platform.runLater(() -> notification.close());
+
+        if (this.kill.get()) {
+            Platform.runLater(() -> Utils.addNotification(tabData.getTab().getText() + " debugging terminated"));
+        }
+        else {
+            Platform.runLater(() -> Utils.addNotification(tabData.getTab().getText() + " debugging finished"));
+        }
+
+        this.stop(false);
+    }
 
     private void initializeBrackets() {
         this.brackets.clear();
@@ -125,34 +357,306 @@ public abstract class Debugger implements Runnable {
     }
 
     public void pause() {
+        this.stopFastForward();
+
         synchronized (this.pause) {
             this.pause.set(true);
         }
 
         tabData.getDebugResumeButton().setDisable(false);
+        tabData.getDebugFastForwardButton().setDisable(false);
+        tabData.getDebugRunBackButton().setDisable(false);
+        tabData.getDebugStepBackButton().setDisable(false);
         tabData.getDebugPauseButton().setDisable(true);
     }
 
     public void resume() {
         synchronized (this.pause) {
             this.pause.set(false);
+            this.goBack.set(0);
             this.pause.notify();
         }
 
         tabData.getDebugResumeButton().setDisable(true);
+        tabData.getDebugFastForwardButton().setDisable(true);
+        tabData.getDebugRunBackButton().setDisable(true);
+        tabData.getDebugStepBackButton().setDisable(true);
         tabData.getDebugPauseButton().setDisable(false);
     }
 
+    /**
+     * Run the optimized program until the next breakpoint and continue stepping from there.
+     */
+    public void fastForward() {
+        this.fastForward.set(true);
+
+        this.resume();
+    }
+
     public void step() {
+        this.stopFastForward();
+
         synchronized (this.pause) {
             this.pause.set(true);
+            this.goBack.set(0);
             this.pause.notify();
         }
 
         tabData.getDebugResumeButton().setDisable(false);
+        tabData.getDebugFastForwardButton().setDisable(false);
+        tabData.getDebugRunBackButton().setDisable(false);
+        tabData.getDebugStepBackButton().setDisable(false);
         tabData.getDebugPauseButton().setDisable(true);
     }
 
+    /**
+     * Undo the last step while paused.
+     */
+    public void stepBack() {
+        this.goBack(STEP_BACK);
+    }
+
+    /**
+     * Undo the steps back to the previous breakpoint while paused.
+     */
+    public void runBack() {
+        this.goBack(RUN_BACK);
+    }
+
+    private void goBack(int request) {
+        synchronized (this.pause) {
+            if (!this.pause.get()) return;
+
+            this.goBack.set(request);
+            this.pause.notify();
+        }
+    }
+
+    /**
+     * Wait while paused, going back on request.
+     *
+     * @param position the position of the step just executed
+     * @return the position of the step before the one to execute next
+     */
+    protected int waitIfPaused(int position) {
+        while (true) {
+            int request;
+
+            synchronized (this.pause) {
+                if (!this.pause.get()) return position;
+
+                // a request made just before waiting is served right away
+                request = this.goBack.getAndSet(0);
+                if (request == 0) {
+                    try {
+                        this.pause.wait();
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+
+                    // resumed, stepped or stopped
+                    request = this.goBack.getAndSet(0);
+                    if (request == 0) return position;
+                }
+            }
+
+            if (this.kill.get()) return position;
+
+            int next = this.undo(request == RUN_BACK);
+            if (next >= 0) position = next - 1;
+        }
+    }
+
+    /**
+     * Record the state the step at position is about to overwrite.
+     */
+    protected void record(int position, char ch) {
+        if (!this.journalValid) {
+            this.journal.clear();
+            this.journalValid = true;
+        }
+
+        switch (ch) {
+            case '>':
+            case '<':
+                this.journal.record(position, Journal.POINTER, this.dataPointer, this.dataPointer);
+                break;
+
+            case '+':
+            case '-':
+            case ',':
+                this.journal.record(position, Journal.CELL, this.memory.get(this.dataPointer), this.dataPointer);
+                break;
+
+            default:
+                this.journal.record(position, Journal.NONE, 0, this.dataPointer);
+        }
+    }
+
+    /**
+     * Undo the last step, or the steps back to the previous breakpoint.
+     * Output already written stays in the terminal.
+     *
+     * @return the position of the step to execute next, or -1 if there is nothing to undo
+     */
+    private int undo(boolean toBreakpoint) {
+        Journal journal = this.journal;
+        if (!this.journalValid || journal.isEmpty()) return -1;
+
+        long target = journal.getCount() - 1;
+
+        if (toBreakpoint && tabData.getDebugBreakpointButton().isSelected()) {
+            // stop right after the previous breakpoint, as when stepping forward onto it
+            String code = this.code;
+            while (target > journal.getFirst()) {
+                int position = Journal.position(journal.get(target - 1));
+                if (position < code.length() && code.charAt(position) == '#') break;
+                target--;
+            }
+        }
+
+        int next = Journal.position(journal.get(target));
+
+        // restore the nearest snapshot instead of undoing every step from here
+        Journal.Checkpoint checkpoint = journal.findCheckpoint(target);
+        boolean restored = checkpoint != null;
+        if (restored) {
+            this.storeTape(checkpoint.tape);
+            this.dataPointer = checkpoint.pointer;
+            journal.rewind(checkpoint);
+        }
+
+        while (journal.getCount() > target) {
+            long step = journal.pop();
+
+            switch (Journal.kind(step)) {
+                case Journal.POINTER:
+                    this.dataPointer = Journal.value(step);
+                    break;
+
+                case Journal.CELL:
+                    this.memory.set(this.dataPointer, Journal.value(step));
+                    if (!restored) this.refresher.markCell(this.dataPointer);
+                    break;
+            }
+        }
+
+        if (restored) this.refresher.markAll();
+        this.refresher.setPointer(this.dataPointer);
+        this.refresher.setPosition(journal.isEmpty() ? next : Journal.position(journal.get(journal.getCount() - 1)));
+
+        return next;
+    }
+
+    private void stopFastForward() {
+        this.fastForward.set(false);
+        this.interrupt.set(true);
+    }
+
+    /**
+     * Run the optimized program if a loop starts or ends at the position,
+     * until it reaches a breakpoint, is paused or ends.
+     * The optimized program runs on the memory and the data pointer is updated from it.
+     *
+     * @return the position to continue stepping from, or the length of the code if the program ended
+     */
+    protected int runToBreakpoint(int position) {
+        char ch = this.code.charAt(position);
+        if (ch != '[' && ch != ']') return position;
+
+        if (!this.optimize()) {
+            this.pause();
+            return position;
+        }
+
+        int index = this.entries[position];
+        if (index < 0) return position;
+
+        // a pause before this point has already cleared the fast forward flag
+        this.interrupt.set(false);
+        if (!this.fastForward.get()) return position;
+
+        Executor executor = new Executor(this.instructions, this.memory, this.wrapMemory, this.interrupt, this);
+        int pointer = this.dataPointer;
+
+        while (true) {
+            index = executor.resume(index, pointer);
+            pointer = executor.getPointer();
+
+            // input consumed before an interruption cannot be stepped again, stop at the next loop instead
+            if (index < this.instructions.length && !this.kill.get() &&
+                    Instruction.opcode(this.instructions[index]) == Instruction.INPUT) {
+                index++;
+            }
+            else {
+                break;
+            }
+        }
+
+        this.dataPointer = pointer;
+
+        // the optimized program cannot be stepped back through
+        this.journal.clear();
+
+        if (index == this.instructions.length) return this.code.length();
+
+        // instructions where the program stops begin at a loop bracket or a breakpoint
+        return this.sourceMap.getStart(index);
+    }
+
+    /**
+     * Optimize the code for fast forwarding unless already done.
+     *
+     * @return false if the code has unmatched brackets
+     */
+    private boolean optimize() {
+        String code = this.code;
+        boolean breakpoints = tabData.getDebugBreakpointButton().isSelected();
+
+        if (code.equals(this.optimizedCode) && breakpoints == this.optimizedBreakpoints) return true;
+
+        SourceMap sourceMap = new SourceMap();
+        try {
+            this.instructions = Optimizer.optimize(code, this.cellSize, this.memorySize, sourceMap, breakpoints);
+        } catch (UnmatchedBracketException e) {
+            showUnmatchedBrackets(e);
+            return false;
+        }
+
+        this.sourceMap = sourceMap;
+
+        this.entries = new int[code.length()];
+        Arrays.fill(this.entries, -1);
+        for (int i = 0; i < this.instructions.length; i++) {
+            int opcode = Instruction.opcode(this.instructions[i]);
+            if (opcode == Instruction.LOOP_START || opcode == Instruction.LOOP_END) {
+                this.entries[sourceMap.getStart(i)] = i;
+            }
+        }
+
+        this.optimizedCode = code;
+        this.optimizedBreakpoints = breakpoints;
+
+        return true;
+    }
+
+    @Override
+    public void write(long codePoint) {
+        tabData.getDebugTerminal().write(CharacterUtils.getSymbol(codePoint));
+    }
+
+    @Override
+    public int read() {
+        Character character = tabData.getDebugTerminal().readChar();
+        return character == null ? 0 : character;
+    }
+
+    @Override
+    public void error(String message) {
+        tabData.getDebugTerminal().writeError(message);
+        this.kill.set(true);
+    }
+
     public void stop() {
         stop(true);
     }
@@ -162,6 +666,8 @@ public abstract class Debugger implements Runnable {
             this.kill.set(true);
         }
 
+        this.stopFastForward();
+
         synchronized (this.pause) {
             this.pause.set(false);
             this.pause.notify();
@@ -179,9 +685,14 @@ public abstract class Debugger implements Runnable {
 
         this.tabData.getDebugTerminal().flush();
 
+        this.refresher.stop();
+
         this.codePad.textProperty().removeListener(textChangeListener);
 
         this.tabData.getDebugResumeButton().setDisable(true);
+        this.tabData.getDebugFastForwardButton().setDisable(true);
+        this.tabData.getDebugRunBackButton().setDisable(true);
+        this.tabData.getDebugStepBackButton().setDisable(true);
         this.tabData.getDebugPauseButton().setDisable(true);
         this.tabData.getDebugStepButton().setDisable(true);
         this.tabData.getDebugStopButton().setDisable(true);
@@ -0,0 +1,177 @@
+package in.pratanumandal.brainfuck.engine.debugger;
+
+import in.pratanumandal.brainfuck.engine.tape.Tape;
+
+import java.util.function.Consumer;
+
+/**
+ * Bounded undo journal of the steps of a debugged program.
+ *
+ * Each step is packed into a long holding its kind, its position in the code and the
+ * pointer or cell value it overwrote. The most recent steps are kept in a ring buffer,
+ * with a snapshot of the memory at regular intervals so that going back far restores
+ * the nearest snapshot and undoes only the steps after it. The snapshots are taken less
+ * often than configured when they would not fit in the memory budget otherwise.
+ */
+class Journal {
+
+    // bytes of memory all snapshots together may take
+    static final long SNAPSHOT_BUDGET = 64L * 1024 * 1024;
+
+    // what a step overwrote
+    static final int NONE = 0;
+    static final int POINTER = 1;
+    static final int CELL = 2;
+
+    private final long[] steps;
+
+    // index of the next step and of the oldest step which can be undone
+    private long count;
+    private long first;
+
+    private final int interval;
+    private final Checkpoint[] checkpoints;
+
+    private final int cellSize;
+    private final int memorySize;
+
+    // copies the memory to a snapshot
+    private final Consumer<Tape> snapshot;
+
+    Journal(int capacity, int interval, int cellSize, int memorySize, Consumer<Tape> snapshot) {
+        this.steps = new long[capacity];
+        this.cellSize = cellSize;
+        this.memorySize = memorySize;
+        this.snapshot = snapshot;
+
+        // the ring keeps two snapshots beyond those covering the steps
+        long snapshotSize = (long) memorySize * (cellSize / 8);
+        int maxSnapshots = (int) Math.max(3, SNAPSHOT_BUDGET / snapshotSize);
+        this.interval = Math.max(interval, (capacity + maxSnapshots - 3) / (maxSnapshots - 2));
+
+        this.checkpoints = new Checkpoint[capacity / this.interval + 2];
+    }
+
+    /**
+     * Record a step before it is executed, taking a snapshot first when one is due.
+     */
+    void record(int position, int kind, int value, int pointer) {
+        if (this.count % this.interval == 0) {
+            int slot = (int) (this.count / this.interval % this.checkpoints.length);
+
+            Checkpoint checkpoint = this.checkpoints[slot];
+            if (checkpoint == null) {
+                checkpoint = new Checkpoint(Tape.getTape(this.cellSize, this.memorySize));
+                this.checkpoints[slot] = checkpoint;
+            }
+
+            this.snapshot.accept(checkpoint.tape);
+            checkpoint.step = this.count;
+            checkpoint.pointer = pointer;
+        }
+
+        this.steps[(int) (this.count % this.steps.length)] = ((long) kind << 62) | ((long) position << 32) | (value & 0xFFFFFFFFL);
+
+        this.count++;
+        if (this.count - this.first > this.steps.length) this.first++;
+    }
+
+    boolean isEmpty() {
+        return this.count == this.first;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getFirst() {
+        return first;
+    }
+
+    int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Count the snapshots allocated so far.
+     */
+    int getSnapshotCount() {
+        int snapshots = 0;
+        for (Checkpoint checkpoint : this.checkpoints) {
+            if (checkpoint != null) snapshots++;
+        }
+        return snapshots;
+    }
+
+    long get(long index) {
+        return this.steps[(int) (index % this.steps.length)];
+    }
+
+    /**
+     * Remove the last step.
+     */
+    long pop() {
+        return this.get(--this.count);
+    }
+
+    /**
+     * Find the nearest snapshot at or after the given step which can still be rewound to it.
+     *
+     * @return the snapshot, or null if there is none
+     */
+    Checkpoint findCheckpoint(long target) {
+        Checkpoint nearest = null;
+
+        for (Checkpoint checkpoint : this.checkpoints) {
+            if (checkpoint == null || checkpoint.step < target || checkpoint.step >= this.count) continue;
+            if (nearest == null || checkpoint.step < nearest.step) nearest = checkpoint;
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Drop the steps from the snapshot on, whose memory has been restored.
+     */
+    void rewind(Checkpoint checkpoint) {
+        this.count = checkpoint.step;
+    }
+
+    void clear() {
+        this.count = 0;
+        this.first = 0;
+
+        for (Checkpoint checkpoint : this.checkpoints) {
+            if (checkpoint != null) checkpoint.step = -1;
+        }
+    }
+
+    static int kind(long step) {
+        return (int) (step >>> 62);
+    }
+
+    static int position(long step) {
+        return (int) (step >>> 32) & 0x3FFFFFFF;
+    }
+
+    static int value(long step) {
+        return (int) step;
+    }
+
+    /**
+     * Memory and data pointer before a step.
+     */
+    static class Checkpoint {
+
+        final Tape tape;
+
+        long step = -1;
+        int pointer;
+
+        private Checkpoint(Tape tape) {
+            this.tape = tape;
+        }
+
+    }
+
+}
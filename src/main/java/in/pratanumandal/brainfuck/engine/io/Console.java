@@ -0,0 +1,23 @@
+package in.pratanumandal.brainfuck.engine.io;
+
+/**
+ * Input and output of a running program.
+ */
+public interface Console {
+
+    /**
+     * Write the character with the given code point.
+     */
+    void write(long codePoint);
+
+    /**
+     * Read the next character, or zero if there is no more input.
+     */
+    int read();
+
+    /**
+     * Report an error which terminates the program.
+     */
+    void error(String message);
+
+}
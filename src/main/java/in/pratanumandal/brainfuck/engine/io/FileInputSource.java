@@ -0,0 +1,89 @@
+package in.pratanumandal.brainfuck.engine.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input streamed from a UTF-8 encoded file.
+ * The file is read and decoded in large chunks so that each character only costs a buffer access.
+ */
+public class FileInputSource implements InputSource {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+
+    private boolean endOfFile;
+    private boolean finished;
+
+    public FileInputSource(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        this.chars.flip();
+    }
+
+    @Override
+    public int read() {
+        if (!this.chars.hasRemaining() && !this.fill()) return -1;
+        return this.chars.get();
+    }
+
+    @Override
+    public boolean available() {
+        return true;
+    }
+
+    /**
+     * Decode the next chunk of the file, returns false at the end of the file.
+     */
+    private boolean fill() {
+        this.chars.clear();
+
+        try {
+            while (this.chars.position() == 0 && !this.finished) {
+                if (!this.endOfFile && this.channel.read(this.bytes) < 0) {
+                    this.endOfFile = true;
+                }
+
+                this.bytes.flip();
+                this.decoder.decode(this.bytes, this.chars, this.endOfFile);
+                this.bytes.compact();
+
+                if (this.endOfFile) {
+                    this.decoder.flush(this.chars);
+                    this.finished = true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.chars.flip();
+        return this.chars.hasRemaining();
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package in.pratanumandal.brainfuck.engine.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Output written to a file.
+ * Characters are UTF-8 encoded straight into a direct buffer which is written to the channel when full.
+ */
+public class FileOutputSink implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    // bytes written to the channel so far
+    private volatile long size;
+
+    // high surrogate waiting to be paired with a following low surrogate
+    private char highSurrogate;
+
+    public FileOutputSink(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Write the character with the given code point, encoded like the text shown in the terminal
+     * where a high surrogate followed by a low surrogate form a single character.
+     */
+    public void write(long codePoint) {
+        if (this.highSurrogate != 0) {
+            char high = this.highSurrogate;
+            this.highSurrogate = 0;
+
+            if (codePoint < 0x10000 && Character.isLowSurrogate((char) codePoint)) {
+                this.encode(Character.toCodePoint(high, (char) codePoint));
+                return;
+            }
+            this.encode('?');
+        }
+
+        if (codePoint < 0x10000 && Character.isHighSurrogate((char) codePoint)) {
+            this.highSurrogate = (char) codePoint;
+            return;
+        }
+
+        this.encode(codePoint);
+    }
+
+    private void encode(long codePoint) {
+        final ByteBuffer buffer = this.buffer;
+        if (buffer.remaining() < 4) this.drain();
+
+        if (codePoint < 0x80) {
+            buffer.put((byte) codePoint);
+        }
+        else if (codePoint < 0x800) {
+            buffer.put((byte) (0xC0 | (codePoint >> 6)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        }
+        else if (codePoint < 0x10000) {
+            if (Character.isSurrogate((char) codePoint)) {
+                // unpaired surrogates can not be encoded
+                buffer.put((byte) '?');
+            }
+            else {
+                buffer.put((byte) (0xE0 | (codePoint >> 12)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            }
+        }
+        else if (codePoint <= Character.MAX_CODE_POINT) {
+            buffer.put((byte) (0xF0 | (codePoint >> 18)));
+            buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        }
+        else {
+            buffer.put((byte) 'N').put((byte) '/').put((byte) 'A');
+        }
+    }
+
+    /**
+     * Get the number of bytes written to the file so far.
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    private void drain() {
+        this.buffer.flip();
+
+        try {
+            while (this.buffer.hasRemaining()) {
+                this.size += this.channel.write(this.buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            this.buffer.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.highSurrogate != 0) this.encode('?');
+
+        try {
+            this.drain();
+        } catch (UncheckedIOException e) {
+            this.channel.close();
+            throw e.getCause();
+        }
+        this.channel.close();
+    }
+
+}
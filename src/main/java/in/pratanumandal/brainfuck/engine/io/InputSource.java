@@ -0,0 +1,24 @@
+package in.pratanumandal.brainfuck.engine.io;
+
+import java.io.Closeable;
+
+/**
+ * Source of the characters read by a program.
+ */
+public interface InputSource extends Closeable {
+
+    /**
+     * Read the next character, or -1 at the end of the input.
+     */
+    int read();
+
+    /**
+     * Check whether a character can be read without blocking.
+     */
+    boolean available();
+
+    @Override
+    default void close() {
+    }
+
+}
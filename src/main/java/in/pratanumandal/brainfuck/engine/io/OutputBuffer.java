@@ -0,0 +1,35 @@
+package in.pratanumandal.brainfuck.engine.io;
+
+import in.pratanumandal.brainfuck.common.CharacterUtils;
+
+import java.util.function.Consumer;
+
+/**
+ * Collects the characters written by a program and passes them on in chunks.
+ * The buffer is flushed when it is full and whenever flush is called, for example periodically.
+ */
+public class OutputBuffer {
+
+    private final StringBuilder buffer;
+    private final int capacity;
+    private final Consumer<String> sink;
+
+    public OutputBuffer(int capacity, Consumer<String> sink) {
+        this.buffer = new StringBuilder(capacity + 4);
+        this.capacity = capacity;
+        this.sink = sink;
+    }
+
+    public synchronized void write(long codePoint) {
+        CharacterUtils.appendSymbol(this.buffer, codePoint);
+        if (this.buffer.length() >= this.capacity) this.flush();
+    }
+
+    public synchronized void flush() {
+        if (this.buffer.length() > 0) {
+            this.sink.accept(this.buffer.toString());
+            this.buffer.setLength(0);
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package in.pratanumandal.brainfuck.engine.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Input read from a character stream such as the standard input.
+ */
+public class ReaderInputSource implements InputSource {
+
+    private final Reader reader;
+
+    public ReaderInputSource(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public int read() {
+        try {
+            return this.reader.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean available() {
+        try {
+            return this.reader.ready();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
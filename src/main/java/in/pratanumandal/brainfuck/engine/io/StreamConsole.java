@@ -0,0 +1,69 @@
+package in.pratanumandal.brainfuck.engine.io;
+
+import in.pratanumandal.brainfuck.common.CharacterUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Console backed by UTF-8 encoded byte streams.
+ */
+public class StreamConsole implements Console {
+
+    private final InputSource input;
+    private final Writer writer;
+    private final PrintStream error;
+
+    public StreamConsole(InputStream input, OutputStream output, PrintStream error) {
+        this(new ReaderInputSource(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))), output, error);
+    }
+
+    public StreamConsole(InputSource input, OutputStream output, PrintStream error) {
+        this.input = input;
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        this.error = error;
+    }
+
+    @Override
+    public void write(long codePoint) {
+        try {
+            this.writer.write(CharacterUtils.getSymbol(codePoint));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int read() {
+        // make prompts visible before blocking for input
+        if (!this.input.available()) this.flush();
+
+        int character = this.input.read();
+        return character < 0 ? 0 : character;
+    }
+
+    @Override
+    public void error(String message) {
+        this.flush();
+        this.error.print(message);
+        this.error.flush();
+    }
+
+    public void flush() {
+        try {
+            this.writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package in.pratanumandal.brainfuck.engine.processor;
+
+/**
+ * Encoding of the pre-processed program.
+ * Each instruction is packed into a long with the opcode in the upper 8 bits,
+ * a signed cell offset relative to the data pointer in the next 24 bits
+ * and the operand in the lower 32 bits.
+ */
+public class Instruction {
+
+    public static final int ADDRESS = 0;
+    public static final int DATA = 1;
+    public static final int OUTPUT = 2;
+    public static final int INPUT = 3;
+    public static final int SET = 4;
+    public static final int SCAN_ZERO_LEFT = 5;
+    public static final int SCAN_ZERO_RIGHT = 6;
+    public static final int LOOP_START = 7;
+    public static final int LOOP_END = 8;
+    public static final int MULTIPLY = 9;
+    public static final int BREAKPOINT = 10;
+
+    public static final int MAX_OFFSET = (1 << 23) - 1;
+
+    public static long encode(int opcode, int operand) {
+        return encode(opcode, 0, operand);
+    }
+
+    public static long encode(int opcode, int offset, int operand) {
+        return ((long) opcode << 56) | ((offset & 0xFFFFFFL) << 32) | (operand & 0xFFFFFFFFL);
+    }
+
+    public static int opcode(long instruction) {
+        return (int) (instruction >>> 56);
+    }
+
+    public static int offset(long instruction) {
+        return (int) (instruction << 8 >> 40);
+    }
+
+    public static int operand(long instruction) {
+        return (int) instruction;
+    }
+
+}
@@ -0,0 +1,62 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter;
+
+import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.BytecodeCompiler;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.CompilationException;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.CompiledProgram;
+import in.pratanumandal.brainfuck.engine.tape.Tape;
+import in.pratanumandal.brainfuck.gui.component.TabData;
+
+public class CompilingInterpreter extends Interpreter {
+
+    public CompilingInterpreter(TabData tabData) {
+        super(tabData);
+
+        this.memory = Tape.getTape(this.cellSize, this.memorySize);
+    }
+
+    @Override
+    protected void execute() {
+        // compiled programs are not instrumented
+        if (this.isProfiling()) {
+            super.execute();
+            return;
+        }
+
+        // compile the program
+        long compileStartTime = System.nanoTime();
+
+        CompiledProgram program;
+        try {
+            program = BytecodeCompiler.compile(instructions, cellSize, memorySize, wrapMemory);
+        } catch (CompilationException e) {
+            e.printStackTrace();
+            tabData.getInterpretTerminal().writeError("Error: Compilation failed; falling back to interpreter\n");
+            program = null;
+        }
+
+        this.compileDuration = System.nanoTime() - compileStartTime;
+        this.metrics.setCompileTime(this.compileDuration);
+
+        if (program == null) {
+            super.execute();
+            return;
+        }
+
+        try {
+            this.createExecutor().execute(program);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            this.error("\nError: " + e + "\n");
+            this.stop(false);
+        }
+    }
+
+    @Override
+    protected void writeSummary() {
+        if (this.isProfiling()) return;
+
+        tabData.getInterpretTerminal().writeMessage("Compilation completed in " + Utils.nanoToBestFitTimeUnits(this.compileDuration) + "\n");
+    }
+
+}
@@ -0,0 +1,313 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter;
+
+import in.pratanumandal.brainfuck.engine.io.Console;
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.CompiledProgram;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.Host;
+import in.pratanumandal.brainfuck.engine.profiler.Metrics;
+import in.pratanumandal.brainfuck.engine.tape.Tape;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Headless execution core running pre-processed instructions on a memory tape.
+ */
+public class Executor implements Host {
+
+    // publish the interpreter metrics once in this many loop iterations
+    private static final long METRICS_INTERVAL_MASK = (1 << 12) - 1;
+
+    private final long[] instructions;
+    private final Tape memory;
+    private final int memorySize;
+    private final boolean wrapMemory;
+    private final AtomicBoolean kill;
+    private final Console console;
+
+    private Metrics metrics;
+
+    // data pointer where the last resumed execution stopped
+    private int pointer;
+
+    public Executor(long[] instructions, Tape memory, boolean wrapMemory, AtomicBoolean kill, Console console) {
+        this.instructions = instructions;
+        this.memory = memory;
+        this.memorySize = memory.size();
+        this.wrapMemory = wrapMemory;
+        this.kill = kill;
+        this.console = console;
+    }
+
+    /**
+     * Collect the metrics of the execution.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Execute the program on the memory tape.
+     */
+    public void execute() {
+        this.execute((long[]) null);
+    }
+
+    /**
+     * Execute the program on the memory tape, counting the executions of each instruction if counts is given.
+     * The loop end counts are the number of iterations of each loop.
+     */
+    public void execute(long[] counts) {
+        this.run(counts, 0, 0);
+    }
+
+    /**
+     * Execute the program from the given instruction and data pointer
+     * until it ends, is stopped or reaches a breakpoint.
+     *
+     * @return the index of the instruction it stopped at, or the number of instructions if it ended
+     */
+    public int resume(int start, int pointer) {
+        return this.run(null, start, pointer);
+    }
+
+    /**
+     * @return the data pointer where the last resumed execution stopped
+     */
+    public int getPointer() {
+        return pointer;
+    }
+
+    private int run(long[] counts, int start, int pointer) {
+        final long[] instructions = this.instructions;
+        final Tape memory = this.memory;
+        final Metrics metrics = this.metrics;
+        final boolean measure = metrics != null;
+
+        int dataPointer = pointer;
+
+        // counted locally and published periodically to keep the loop cheap
+        // instructions run in straight segments between jumps, so they are counted at the jumps
+        long executed = 0;
+        long iterations = 0;
+        // highest cell accessed, including cells reached through offsets
+        int maxPointer = 0;
+        int segmentStart = start;
+
+        int i;
+
+        program:
+        for (i = start; i < instructions.length; i++) {
+            long instruction = instructions[i];
+            int address;
+
+            if (counts != null) counts[i]++;
+
+            switch (Instruction.opcode(instruction)) {
+                // handle pointer movement (> and <)
+                case Instruction.ADDRESS:
+                    dataPointer = this.resolve(dataPointer + Instruction.operand(instruction));
+                    if (dataPointer < 0) break program;
+                    if (measure && dataPointer > maxPointer) maxPointer = dataPointer;
+                    break;
+
+                // handle value update (+ and -)
+                case Instruction.DATA:
+                    address = this.resolve(dataPointer + Instruction.offset(instruction));
+                    if (address < 0) break program;
+                    if (measure && address > maxPointer) maxPointer = address;
+                    memory.add(address, Instruction.operand(instruction));
+                    break;
+
+                // handle output (.)
+                case Instruction.OUTPUT:
+                    address = this.resolve(dataPointer + Instruction.offset(instruction));
+                    if (address < 0) break program;
+                    if (measure && address > maxPointer) maxPointer = address;
+                    this.output(address);
+                    break;
+
+                // handle input (,)
+                case Instruction.INPUT:
+                    address = this.resolve(dataPointer + Instruction.offset(instruction));
+                    if (address < 0) break program;
+                    if (measure && address > maxPointer) maxPointer = address;
+                    if (measure) metrics.update(executed + i - segmentStart + 1, iterations, dataPointer, maxPointer);
+                    this.input(address);
+                    if (this.kill.get()) break program;
+                    break;
+
+                // handle [-] and constant stores
+                case Instruction.SET:
+                    address = this.resolve(dataPointer + Instruction.offset(instruction));
+                    if (address < 0) break program;
+                    if (measure && address > maxPointer) maxPointer = address;
+                    memory.set(address, Instruction.operand(instruction));
+                    break;
+
+                // handle multiplication loops such as [->++<]
+                case Instruction.MULTIPLY:
+                    int value = memory.get(dataPointer);
+                    if (value != 0) {
+                        address = this.resolve(dataPointer + Instruction.offset(instruction));
+                        if (address < 0) break program;
+                        if (measure && address > maxPointer) maxPointer = address;
+                        memory.add(address, value * Instruction.operand(instruction));
+                    }
+                    break;
+
+                // handle [<], [<<] and so on
+                case Instruction.SCAN_ZERO_LEFT:
+                    address = this.scanLeft(dataPointer, Instruction.operand(instruction));
+                    if (address < 0) break program;
+                    dataPointer = address;
+                    if (measure && dataPointer > maxPointer) maxPointer = dataPointer;
+                    break;
+
+                // handle [>], [>>] and so on
+                case Instruction.SCAN_ZERO_RIGHT:
+                    address = this.scanRight(dataPointer, Instruction.operand(instruction));
+                    if (address < 0) break program;
+                    dataPointer = address;
+                    if (measure && dataPointer > maxPointer) maxPointer = dataPointer;
+                    break;
+
+                // handle loop opening ([)
+                case Instruction.LOOP_START:
+                    if (memory.isZero(dataPointer)) {
+                        if (measure) {
+                            executed += i - segmentStart + 1;
+                            segmentStart = Instruction.operand(instruction) + 1;
+                        }
+                        i = Instruction.operand(instruction);
+                    }
+                    break;
+
+                // handle loop closing (])
+                case Instruction.LOOP_END:
+                    if (!memory.isZero(dataPointer)) {
+                        // check for termination only on backward jumps
+                        if (this.kill.get()) break program;
+                        if (measure) {
+                            executed += i - segmentStart + 1;
+                            segmentStart = Instruction.operand(instruction) + 1;
+                            if ((++iterations & METRICS_INTERVAL_MASK) == 0) {
+                                metrics.update(executed, iterations, dataPointer, maxPointer);
+                            }
+                        }
+                        i = Instruction.operand(instruction);
+                    }
+                    break;
+
+                // handle breakpoints (#) of a debugged program
+                case Instruction.BREAKPOINT:
+                    break program;
+            }
+        }
+
+        // the last segment ends at the end of the program or at the instruction that stopped it
+        if (measure) {
+            executed += Math.min(i + 1, instructions.length) - segmentStart;
+            metrics.update(executed, iterations, dataPointer, maxPointer);
+        }
+
+        this.pointer = dataPointer;
+        return i;
+    }
+
+    /**
+     * Execute the program compiled from the same instructions.
+     */
+    public void execute(CompiledProgram program) throws Throwable {
+        program.run(this, this.memory);
+    }
+
+    /**
+     * Resolve a memory address, wrapping it around or reporting it if out of bounds.
+     * Returns -1 if the address is out of bounds.
+     */
+    private int resolve(int address) {
+        if (address >= 0 && address < this.memorySize) return address;
+
+        if (this.wrapMemory) {
+            return address < 0 ? address + this.memorySize : address - this.memorySize;
+        }
+
+        this.outOfBounds(address);
+        return -1;
+    }
+
+    /**
+     * Move the pointer left by stride until a zero cell is found.
+     * Returns -1 if the pointer moved out of bounds or the execution was terminated.
+     */
+    @Override
+    public int scanLeft(int pointer, int stride) {
+        while (true) {
+            pointer = this.memory.findZeroLeft(pointer, stride);
+            if (pointer >= 0) return pointer;
+
+            if (!this.wrapMemory) {
+                this.outOfBounds(pointer);
+                return -1;
+            }
+
+            // continue from the other end, which may never find a zero
+            if (this.kill.get()) return -1;
+            pointer += this.memorySize;
+        }
+    }
+
+    /**
+     * Move the pointer right by stride until a zero cell is found.
+     * Returns -1 if the pointer moved out of bounds or the execution was terminated.
+     */
+    @Override
+    public int scanRight(int pointer, int stride) {
+        while (true) {
+            pointer = this.memory.findZeroRight(pointer, stride);
+            if (pointer < this.memorySize) return pointer;
+
+            if (!this.wrapMemory) {
+                this.outOfBounds(pointer);
+                return -1;
+            }
+
+            // continue from the other end, which may never find a zero
+            if (this.kill.get()) return -1;
+            pointer -= this.memorySize;
+        }
+    }
+
+    @Override
+    public boolean isKilled() {
+        return this.kill.get();
+    }
+
+    @Override
+    public void output(int pointer) {
+        long codePoint = this.memory.getCodePoint(pointer);
+        this.console.write(codePoint);
+        if (this.metrics != null) this.metrics.write(codePoint);
+    }
+
+    @Override
+    public void input(int pointer) {
+        if (this.metrics == null) {
+            this.memory.set(pointer, this.console.read());
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        int character = this.console.read();
+        this.metrics.read(character, System.nanoTime() - startTime);
+
+        this.memory.set(pointer, character);
+    }
+
+    @Override
+    public void outOfBounds(int pointer) {
+        this.console.error("\nError: Memory index out of bounds " + pointer + "\n");
+        this.kill.set(true);
+    }
+
+}
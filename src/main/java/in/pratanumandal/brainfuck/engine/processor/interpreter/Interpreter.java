@@ -1,16 +1,78 @@
 package in.pratanumandal.brainfuck.engine.processor.interpreter;
 
 import in.pratanumandal.brainfuck.common.Configuration;
+import in.pratanumandal.brainfuck.common.Constants;
+import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.engine.UnmatchedBracketException;
+import in.pratanumandal.brainfuck.engine.io.Console;
+import in.pratanumandal.brainfuck.engine.io.FileInputSource;
+import in.pratanumandal.brainfuck.engine.io.FileOutputSink;
+import in.pratanumandal.brainfuck.engine.io.InputSource;
+import in.pratanumandal.brainfuck.engine.io.OutputBuffer;
 import in.pratanumandal.brainfuck.engine.processor.Processor;
+import in.pratanumandal.brainfuck.engine.profiler.Metrics;
+import in.pratanumandal.brainfuck.engine.profiler.Profile;
+import in.pratanumandal.brainfuck.engine.tape.Tape;
+import in.pratanumandal.brainfuck.gui.component.NotificationManager;
 import in.pratanumandal.brainfuck.gui.component.TabData;
+import in.pratanumandal.brainfuck.gui.highlight.Highlighter;
+import in.pratanumandal.brainfuck.os.windows.WindowsUtils;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.stage.Stage;
 
-public abstract class Interpreter extends Processor {
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public abstract class Interpreter extends Processor implements Console {
+
+    // flush the output when this many characters are buffered or after this many milliseconds
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+    private static final long OUTPUT_FLUSH_INTERVAL = 50;
+
+    // update the progress of output written to a file after this many milliseconds
+    private static final long PROGRESS_INTERVAL = 500;
+
+    // sample the metrics after this many milliseconds
+    private static final long METRICS_INTERVAL = 500;
+
+    protected Tape memory;
+
+    private final OutputBuffer output;
+
+    private InputSource input;
+
+    // output file replacing the terminal, if any
+    private FileOutputSink fileOutput;
+
+    // source text of a profiled run and the execution count of each instruction
+    private String profileText;
+    private long[] counts;
+
+    protected Metrics metrics;
+
+    // time taken to compile the program before running it, left out of its runtime
+    protected long compileDuration;
 
     protected Interpreter(TabData tabData) {
         super(tabData);
+
+        this.output = new OutputBuffer(OUTPUT_BUFFER_SIZE, text -> tabData.getInterpretTerminal().write(text));
     }
 
     public static Interpreter getInterpreter(TabData tabData) {
+        if (Configuration.getCompileToJava()) {
+            return new JavaCompilingInterpreter(tabData);
+        }
+
+        if (Configuration.getCompileToBytecode()) {
+            return new CompilingInterpreter(tabData);
+        }
+
         switch (Configuration.getCellSize()) {
             case 8: return new Interpreter8(tabData);
             case 16: return new Interpreter16(tabData);
@@ -19,4 +81,252 @@ public abstract class Interpreter extends Processor {
         }
     }
 
+    @Override
+    public void start() {
+        tabData.getInterpretTerminal().reset();
+
+        this.memory.clear();
+
+        File inputFile = tabData.getInputFile();
+        if (inputFile != null) {
+            try {
+                this.input = new FileInputSource(inputFile.toPath());
+            } catch (IOException e) {
+                this.showError("Failed to open input file " + inputFile.getAbsolutePath());
+                return;
+            }
+        }
+        else {
+            this.input = tabData.getInterpretTerminal();
+        }
+
+        File outputFile = tabData.getOutputFile();
+        if (outputFile != null) {
+            try {
+                this.fileOutput = new FileOutputSink(outputFile.toPath());
+            } catch (IOException e) {
+                this.input.close();
+                this.showError("Failed to open output file " + outputFile.getAbsolutePath());
+                return;
+            }
+        }
+        else {
+            this.fileOutput = null;
+        }
+
+        this.profileText = tabData.getInterpretProfileButton().isSelected() ? tabData.getFileText() : null;
+
+        try {
+            super.start();
+        } catch (UnmatchedBracketException e) {
+            this.closeFiles();
+            this.showError(e.getMessage());
+            return;
+        }
+
+        this.tabData.getInterpretInputButton().setDisable(true);
+        this.tabData.getInterpretOutputButton().setDisable(true);
+        this.tabData.getInterpretProfileButton().setDisable(true);
+        this.tabData.getInterpretStopButton().setDisable(false);
+        this.tabData.getInterpretCloseButton().setDisable(true);
+    }
+
+    private void showError(String message) {
+        Platform.runLater(() -> {
+            Alert error = new Alert(Alert.AlertType.ERROR);
+            error.setTitle(Constants.APPLICATION_NAME);
+            error.setHeaderText("Interpreter Error");
+            error.setContentText(message + "\n\n");
+
+            WindowsUtils.setStageStyle((Stage) error.getDialogPane().getScene().getWindow());
+
+            error.initOwner(tabData.getTab().getTabPane().getScene().getWindow());
+            error.showAndWait();
+        });
+    }
+
+    /**
+     * Close the input and output files, reporting output which could not be written.
+     */
+    private void closeFiles() {
+        this.input.close();
+
+        if (this.fileOutput != null) {
+            try {
+                this.fileOutput.close();
+            } catch (IOException e) {
+                this.error("\nError: Failed to write output file: " + e.getMessage() + "\n");
+            }
+        }
+    }
+
+    @Override
+    protected void stop(boolean join) {
+        synchronized (this.kill) {
+            this.kill.set(true);
+        }
+
+        this.tabData.getInterpretTerminal().release();
+
+        super.stop(join);
+
+        this.tabData.getInterpretTerminal().flush();
+
+        this.tabData.getInterpretInputButton().setDisable(false);
+        this.tabData.getInterpretOutputButton().setDisable(false);
+        this.tabData.getInterpretProfileButton().setDisable(false);
+        this.tabData.getInterpretStopButton().setDisable(true);
+        this.tabData.getInterpretCloseButton().setDisable(false);
+    }
+
+    @Override
+    public void run() {
+        AtomicReference<NotificationManager.Notification> notificationAtomicReference = new AtomicReference<>();
+        if (this.fileOutput == null) {
+            Utils.runAndWait(() -> notificationAtomicReference.set(Utils.addNotification(tabData.getTab().getText() + " execution started")));
+        }
+        else {
+            Utils.runAndWait(() -> notificationAtomicReference.set(Utils.addNotificationWithProgress(tabData.getTab().getText() + " writing output to file")));
+            tabData.getInterpretTerminal().writeMessage("Writing output to " + tabData.getOutputFile().getAbsolutePath() + "\n");
+        }
+        NotificationManager.Notification notification = notificationAtomicReference.get();
+
+        // start time
+        long startTime = System.nanoTime();
+
+        ScheduledFuture<?> flushFuture;
+        if (this.fileOutput == null) {
+            flushFuture = Constants.EXECUTOR_SERVICE.scheduleWithFixedDelay(this.output::flush,
+                    OUTPUT_FLUSH_INTERVAL, OUTPUT_FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+        else {
+            flushFuture = Constants.EXECUTOR_SERVICE.scheduleWithFixedDelay(() -> {
+                long size = this.fileOutput.getSize();
+                double seconds = (System.nanoTime() - startTime) / 1e9;
+                String text = tabData.getTab().getText() + " writing output to file\n" +
+                        Utils.bytesToBestFitUnits(size) + " written at " +
+                        Utils.bytesToBestFitUnits((long) (size / seconds)) + "/s";
+                Platform.runLater(() -> notification.setText(text));
+            }, PROGRESS_INTERVAL, PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+
+        this.counts = this.profileText != null ? new long[this.instructions.length] : null;
+
+        this.metrics = new Metrics();
+        Platform.runLater(() -> tabData.getInterpretMetrics().reset());
+
+        this.compileDuration = 0;
+
+        ScheduledFuture<?> metricsFuture = Constants.EXECUTOR_SERVICE.scheduleWithFixedDelay(() -> {
+            Metrics.Sample sample = this.metrics.sample();
+            Platform.runLater(() -> tabData.getInterpretMetrics().update(sample));
+        }, METRICS_INTERVAL, METRICS_INTERVAL, TimeUnit.MILLISECONDS);
+
+        this.execute();
+
+        metricsFuture.cancel(false);
+        this.metrics.stop();
+        Metrics.Sample sample = this.metrics.sample();
+        Platform.runLater(() -> tabData.getInterpretMetrics().update(sample));
+
+        flushFuture.cancel(false);
+        this.output.flush();
+
+        this.closeFiles();
+
+        // stop time
+        long stopTime = System.nanoTime();
+
+        // execution duration
+        long duration = stopTime - startTime - this.compileDuration;
+        String durationStr = Utils.nanoToBestFitTimeUnits(duration);
+
+        // print the execution time
+        tabData.getInterpretTerminal().writeMessage("\n\n");
+        tabData.getInterpretTerminal().writeMessage("--------------------------------------------------------------------------------\n");
+
+        if (this.fileOutput != null) {
+            tabData.getInterpretTerminal().writeMessage("Output written to file (" + Utils.bytesToBestFitUnits(this.fileOutput.getSize()) + ")\n");
+        }
+
+        this.writeSummary();
+
+        Platform.runLater(() -> notification.close());
+
+        if (this.kill.get()) {
+            tabData.getInterpretTerminal().writeMessage("Execution terminated; Runtime " + durationStr + "\n");
+            Platform.runLater(() -> Utils.addNotification(tabData.getTab().getText() + " execution terminated"));
+        }
+        else {
+            tabData.getInterpretTerminal().writeMessage("Execution completed in " + durationStr + "\n");
+            Platform.runLater(() -> Utils.addNotification(tabData.getTab().getText() + " execution finished"));
+        }
+
+        if (this.isProfiling()) {
+            Profile profile = new Profile(this.profileText, this.sourceMap, this.instructions, this.counts);
+            Platform.runLater(() -> {
+                Highlighter.highlightHeat(tabData, profile);
+                Utils.showProfile(tabData, profile);
+            });
+        }
+
+        this.stop(false);
+    }
+
+    /**
+     * Execute the program on the memory tape.
+     */
+    protected void execute() {
+        this.createExecutor().execute(this.counts);
+    }
+
+    /**
+     * @return true if the execution counts are being collected
+     */
+    protected boolean isProfiling() {
+        return this.counts != null;
+    }
+
+    protected Executor createExecutor() {
+        Executor executor = new Executor(this.instructions, this.memory, this.wrapMemory, this.kill, this);
+        executor.setMetrics(this.metrics);
+        return executor;
+    }
+
+    /**
+     * Write engine specific details before the execution time.
+     */
+    protected void writeSummary() {
+    }
+
+    @Override
+    public void write(long codePoint) {
+        if (this.fileOutput == null) {
+            this.output.write(codePoint);
+            return;
+        }
+
+        try {
+            this.fileOutput.write(codePoint);
+        } catch (UncheckedIOException e) {
+            this.error("\nError: Failed to write output file: " + e.getCause().getMessage() + "\n");
+            this.kill.set(true);
+        }
+    }
+
+    @Override
+    public int read() {
+        // make prompts visible before blocking for input
+        if (!this.input.available()) this.output.flush();
+
+        int character = this.input.read();
+        return character < 0 ? 0 : character;
+    }
+
+    @Override
+    public void error(String message) {
+        this.output.flush();
+        tabData.getInterpretTerminal().writeError(message);
+    }
+
 }
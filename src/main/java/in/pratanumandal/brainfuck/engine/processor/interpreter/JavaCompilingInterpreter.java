@@ -0,0 +1,196 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter;
+
+import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.CompilationException;
+import in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.JavaSourceCompiler;
+import in.pratanumandal.brainfuck.engine.processor.translator.JavaTranslator;
+import in.pratanumandal.brainfuck.engine.tape.Tape;
+import in.pratanumandal.brainfuck.gui.component.TabData;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Runs programs translated to Java and compiled in memory with the system Java compiler.
+ */
+public class JavaCompilingInterpreter extends Interpreter {
+
+    private static final String CLASS_NAME = "BrainfuckProgram";
+
+    // thread running the compiled program, interrupted to stop it
+    private volatile Thread worker;
+
+    public JavaCompilingInterpreter(TabData tabData) {
+        super(tabData);
+
+        this.memory = Tape.getTape(this.cellSize, this.memorySize);
+    }
+
+    @Override
+    protected void execute() {
+        // compiled programs are not instrumented
+        if (this.isProfiling()) {
+            super.execute();
+            return;
+        }
+
+        // translate and compile the program
+        long compileStartTime = System.nanoTime();
+
+        MethodHandle program;
+        try {
+            String source = new JavaTranslator(tabData).translate(this.instructions, CLASS_NAME);
+            program = JavaSourceCompiler.compile(CLASS_NAME, source);
+        } catch (IOException | CompilationException e) {
+            e.printStackTrace();
+            tabData.getInterpretTerminal().writeError("Error: Compilation failed (" + e.getMessage() + "); falling back to interpreter\n");
+            program = null;
+        }
+
+        this.compileDuration = System.nanoTime() - compileStartTime;
+        this.metrics.setCompileTime(this.compileDuration);
+
+        if (program == null) {
+            super.execute();
+            return;
+        }
+
+        Reader reader = new ConsoleReader();
+        OutputStream output = new ConsoleOutputStream();
+
+        MethodHandle entry = program;
+        Thread worker = new Thread(() -> {
+            try {
+                entry.invoke(reader, output);
+            } catch (InterruptedIOException e) {
+                // stopped by the user
+            } catch (IndexOutOfBoundsException e) {
+                this.error("\nError: " + e.getMessage() + "\n");
+                this.kill.set(true);
+            } catch (Throwable e) {
+                e.printStackTrace();
+                this.error("\nError: " + e + "\n");
+                this.kill.set(true);
+            }
+        }, CLASS_NAME);
+
+        this.worker = worker;
+        worker.start();
+
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        this.worker = null;
+    }
+
+    @Override
+    protected void stop(boolean join) {
+        synchronized (this.kill) {
+            this.kill.set(true);
+        }
+
+        Thread worker = this.worker;
+        if (worker != null) worker.interrupt();
+
+        super.stop(join);
+    }
+
+    @Override
+    protected void writeSummary() {
+        if (this.isProfiling()) return;
+
+        tabData.getInterpretTerminal().writeMessage("Compilation completed in " + Utils.nanoToBestFitTimeUnits(this.compileDuration) + "\n");
+    }
+
+    /**
+     * Output stream decoding the UTF-8 bytes written by the program and passing the code points to the console.
+     */
+    private class ConsoleOutputStream extends OutputStream {
+
+        // code point being decoded and the number of continuation bytes it still needs
+        private int codePoint;
+        private int remaining;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (kill.get()) throw new InterruptedIOException();
+
+            b &= 0xFF;
+
+            if (this.remaining > 0) {
+                this.codePoint = (this.codePoint << 6) | (b & 0x3F);
+                if (--this.remaining == 0) this.output(this.codePoint);
+            }
+            else if (b < 0x80) {
+                this.output(b);
+            }
+            else if (b < 0xE0) {
+                this.codePoint = b & 0x1F;
+                this.remaining = 1;
+            }
+            else if (b < 0xF0) {
+                this.codePoint = b & 0x0F;
+                this.remaining = 2;
+            }
+            else {
+                this.codePoint = b & 0x07;
+                this.remaining = 3;
+            }
+        }
+
+        private void output(int codePoint) {
+            JavaCompilingInterpreter.this.write(codePoint);
+            metrics.write(codePoint);
+        }
+
+        // the console makes prompts visible before blocking for input
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    /**
+     * Reader taking the characters read by the program from the console.
+     */
+    private class ConsoleReader extends Reader {
+
+        @Override
+        public int read() throws IOException {
+            if (kill.get()) throw new InterruptedIOException();
+
+            long startTime = System.nanoTime();
+            int character = JavaCompilingInterpreter.this.read();
+            metrics.read(character, System.nanoTime() - startTime);
+
+            // the console is released when the run is stopped
+            if (kill.get()) throw new InterruptedIOException();
+
+            return character;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) return 0;
+
+            cbuf[off] = (char) this.read();
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
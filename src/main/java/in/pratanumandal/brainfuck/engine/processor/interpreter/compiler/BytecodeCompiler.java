@@ -0,0 +1,437 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter.compiler;
+
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+import static in.pratanumandal.brainfuck.engine.processor.interpreter.compiler.CodeBuffer.*;
+
+/**
+ * Compiles the pre-processed instructions into a hidden class with real loops,
+ * so that the program itself is optimized by the JIT compiler.
+ */
+public class BytecodeCompiler {
+
+    // keep generated methods well below the huge method limit of the JIT
+    private static final int METHOD_LIMIT = 3000;
+
+    private static final int LOOP_WEIGHT = 24;
+    private static final int CALL_WEIGHT = 16;
+
+    private static final String CLASS_NAME = "in/pratanumandal/brainfuck/engine/processor/interpreter/compiler/CompiledBrainfuck";
+    private static final String HOST = "in/pratanumandal/brainfuck/engine/processor/interpreter/compiler/Host";
+    private static final String TAPE16 = "in/pratanumandal/brainfuck/engine/tape/Tape16";
+    private static final String TAPE32 = "in/pratanumandal/brainfuck/engine/tape/Tape32";
+
+    private static final int HOST_LOCAL = 0;
+    private static final int CELLS_LOCAL = 1;
+    private static final int POINTER_LOCAL = 2;
+    private static final int ADDRESS_LOCAL = 3;
+    private static final int VALUE_LOCAL = 4;
+
+    private final long[] instructions;
+    private final int memorySize;
+    private final boolean wrapMemory;
+
+    private final String descriptor;
+
+    private final ClassWriter classWriter;
+
+    private final int isKilled;
+    private final int output;
+    private final int input;
+    private final int scanLeft;
+    private final int scanRight;
+    private final int outOfBounds;
+
+    // wider cells are accessed through the tape, byte cells directly
+    private final int load;
+    private final int store;
+
+    private final int[] weights;
+    private int methodCount;
+
+    private BytecodeCompiler(long[] instructions, int cellSize, int memorySize, boolean wrapMemory) {
+        this.instructions = instructions;
+        this.memorySize = memorySize;
+        this.wrapMemory = wrapMemory;
+
+        this.descriptor = "(L" + HOST + ";[BI)I";
+
+        this.classWriter = new ClassWriter(CLASS_NAME);
+
+        switch (cellSize) {
+            case 8:
+                this.load = -1;
+                this.store = -1;
+                break;
+            case 16:
+                this.load = classWriter.methodConstant(classWriter.classConstant(TAPE16), "load", "([BI)I");
+                this.store = classWriter.methodConstant(classWriter.classConstant(TAPE16), "store", "([BII)V");
+                break;
+            case 32:
+                this.load = classWriter.methodConstant(classWriter.classConstant(TAPE32), "load", "([BI)I");
+                this.store = classWriter.methodConstant(classWriter.classConstant(TAPE32), "store", "([BII)V");
+                break;
+            default:
+                throw new CompilationException("Unsupported cell size " + cellSize);
+        }
+
+        this.isKilled = classWriter.interfaceMethodConstant(HOST, "isKilled", "()Z");
+        this.output = classWriter.interfaceMethodConstant(HOST, "output", "(I)V");
+        this.input = classWriter.interfaceMethodConstant(HOST, "input", "(I)V");
+        this.scanLeft = classWriter.interfaceMethodConstant(HOST, "scanLeft", "(II)I");
+        this.scanRight = classWriter.interfaceMethodConstant(HOST, "scanRight", "(II)I");
+        this.outOfBounds = classWriter.interfaceMethodConstant(HOST, "outOfBounds", "(I)V");
+
+        // prefix sums of estimated bytecode size
+        this.weights = new int[instructions.length + 1];
+        for (int i = 0; i < instructions.length; i++) {
+            this.weights[i + 1] = this.weights[i] + this.estimateWeight(Instruction.opcode(instructions[i]));
+        }
+    }
+
+    public static CompiledProgram compile(long[] instructions, int cellSize, int memorySize, boolean wrapMemory) {
+        BytecodeCompiler compiler = new BytecodeCompiler(instructions, cellSize, memorySize, wrapMemory);
+        return compiler.compile();
+    }
+
+    private CompiledProgram compile() {
+        String entryName = this.createMethod((code, ret) -> this.emitBody(code, 0, instructions.length, ret));
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classWriter.toByteArray(), true);
+            MethodType methodType = MethodType.methodType(int.class, Host.class, byte[].class, int.class);
+            MethodHandle entry = lookup.findStatic(lookup.lookupClass(), entryName, methodType);
+            return new CompiledProgram(entry);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new CompilationException("Failed to load compiled program", e);
+        }
+    }
+
+    private int estimateWeight(int opcode) {
+        switch (opcode) {
+            case Instruction.ADDRESS: return 24;
+            case Instruction.DATA: return 32;
+            case Instruction.OUTPUT: return 30;
+            case Instruction.INPUT: return 36;
+            case Instruction.SET: return 30;
+            case Instruction.MULTIPLY: return 48;
+            case Instruction.SCAN_ZERO_LEFT: return 20;
+            case Instruction.SCAN_ZERO_RIGHT: return 20;
+            case Instruction.LOOP_START: return LOOP_WEIGHT;
+            case Instruction.LOOP_END: return 0;
+            default: return 10;
+        }
+    }
+
+    private int next(int i) {
+        if (Instruction.opcode(instructions[i]) == Instruction.LOOP_START) {
+            return Instruction.operand(instructions[i]) + 1;
+        }
+        return i + 1;
+    }
+
+    private int weight(int from, int to) {
+        return this.weights[to] - this.weights[from];
+    }
+
+    /**
+     * Create a new static method with the common signature and return its name.
+     */
+    private String createMethod(MethodBody body) {
+        String name = "block" + this.methodCount++;
+
+        CodeBuffer code = new CodeBuffer();
+        Label ret = new Label();
+
+        body.emit(code, ret);
+
+        code.mark(ret);
+        code.op(ILOAD, POINTER_LOCAL);
+        code.op(IRETURN);
+
+        this.classWriter.addMethod(name, this.descriptor, 6, 5, code);
+
+        return name;
+    }
+
+    /**
+     * Emit the instructions in range, outlining parts into separate methods if too large.
+     */
+    private void emitBody(CodeBuffer code, int from, int to, Label ret) {
+        if (this.weight(from, to) <= METHOD_LIMIT) {
+            this.emitInline(code, from, to, ret);
+            return;
+        }
+
+        // partition the top level items into groups of limited size
+        List<String> methods = new ArrayList<>();
+        int groupStart = from;
+
+        for (int i = from; i < to; ) {
+            int next = this.next(i);
+
+            if (this.weight(i, next) > METHOD_LIMIT) {
+                if (groupStart < i) methods.add(this.createInlineMethod(groupStart, i));
+
+                int loopStart = i;
+                methods.add(this.createMethod((c, r) -> this.emitLoop(c, loopStart, next - 1, r)));
+
+                groupStart = next;
+            }
+            else if (this.weight(groupStart, next) > METHOD_LIMIT) {
+                methods.add(this.createInlineMethod(groupStart, i));
+                groupStart = i;
+            }
+
+            i = next;
+        }
+
+        if (groupStart < to) methods.add(this.createInlineMethod(groupStart, to));
+
+        this.emitCalls(code, methods, ret);
+    }
+
+    private String createInlineMethod(int from, int to) {
+        return this.createMethod((code, ret) -> this.emitInline(code, from, to, ret));
+    }
+
+    private void emitCalls(CodeBuffer code, List<String> methods, Label ret) {
+        if (methods.size() * CALL_WEIGHT <= METHOD_LIMIT) {
+            for (String method : methods) {
+                this.emitCall(code, method, ret);
+            }
+            return;
+        }
+
+        // group the calls hierarchically
+        int groupSize = METHOD_LIMIT / CALL_WEIGHT;
+        List<String> groups = new ArrayList<>();
+        for (int i = 0; i < methods.size(); i += groupSize) {
+            List<String> group = methods.subList(i, Math.min(i + groupSize, methods.size()));
+            groups.add(this.createMethod((c, r) -> this.emitCalls(c, group, r)));
+        }
+
+        this.emitCalls(code, groups, ret);
+    }
+
+    private void emitCall(CodeBuffer code, String method, Label ret) {
+        code.op(ALOAD, HOST_LOCAL);
+        code.op(ALOAD, CELLS_LOCAL);
+        code.op(ILOAD, POINTER_LOCAL);
+        code.opShort(INVOKESTATIC, classWriter.methodConstant(classWriter.getThisClass(), method, this.descriptor));
+        code.op(ISTORE, POINTER_LOCAL);
+        this.emitKillCheck(code, ret);
+    }
+
+    private void emitKillCheck(CodeBuffer code, Label ret) {
+        code.op(ALOAD, HOST_LOCAL);
+        code.invokeInterface(this.isKilled, 0);
+        code.jump(IFNE, ret);
+    }
+
+    private void emitInline(CodeBuffer code, int from, int to, Label ret) {
+        for (int i = from; i < to; i++) {
+            long instruction = instructions[i];
+
+            switch (Instruction.opcode(instruction)) {
+                // handle pointer movement (> and <)
+                case Instruction.ADDRESS:
+                    this.emitAddress(code, Instruction.operand(instruction), ret);
+                    break;
+
+                // handle value update (+ and -)
+                case Instruction.DATA: {
+                    int address = this.emitResolve(code, Instruction.offset(instruction), ret);
+                    code.op(ALOAD, CELLS_LOCAL);
+                    code.op(ILOAD, address);
+                    code.op(DUP2);
+                    this.emitLoad(code);
+                    code.pushInt(classWriter, Instruction.operand(instruction));
+                    code.op(IADD);
+                    this.emitStore(code);
+                    break;
+                }
+
+                // handle output (.)
+                case Instruction.OUTPUT: {
+                    int address = this.emitResolve(code, Instruction.offset(instruction), ret);
+                    this.emitHostCall(code, this.output, address);
+                    break;
+                }
+
+                // handle input (,)
+                case Instruction.INPUT: {
+                    int address = this.emitResolve(code, Instruction.offset(instruction), ret);
+                    this.emitHostCall(code, this.input, address);
+                    this.emitKillCheck(code, ret);
+                    break;
+                }
+
+                // handle [-] and constant stores
+                case Instruction.SET: {
+                    int address = this.emitResolve(code, Instruction.offset(instruction), ret);
+                    code.op(ALOAD, CELLS_LOCAL);
+                    code.op(ILOAD, address);
+                    code.pushInt(classWriter, Instruction.operand(instruction));
+                    this.emitStore(code);
+                    break;
+                }
+
+                // handle multiplication loops such as [->++<]
+                case Instruction.MULTIPLY: {
+                    Label skip = new Label();
+
+                    code.op(ALOAD, CELLS_LOCAL);
+                    code.op(ILOAD, POINTER_LOCAL);
+                    this.emitLoad(code);
+                    code.op(ISTORE, VALUE_LOCAL);
+                    code.op(ILOAD, VALUE_LOCAL);
+                    code.jump(IFEQ, skip);
+
+                    int address = this.emitResolve(code, Instruction.offset(instruction), ret);
+                    code.op(ALOAD, CELLS_LOCAL);
+                    code.op(ILOAD, address);
+                    code.op(DUP2);
+                    this.emitLoad(code);
+                    code.op(ILOAD, VALUE_LOCAL);
+                    code.pushInt(classWriter, Instruction.operand(instruction));
+                    code.op(IMUL);
+                    code.op(IADD);
+                    this.emitStore(code);
+
+                    code.mark(skip);
+                    break;
+                }
+
+                // handle [<], [<<] and so on
+                case Instruction.SCAN_ZERO_LEFT:
+                    this.emitScan(code, this.scanLeft, Instruction.operand(instruction), ret);
+                    break;
+
+                // handle [>], [>>] and so on
+                case Instruction.SCAN_ZERO_RIGHT:
+                    this.emitScan(code, this.scanRight, Instruction.operand(instruction), ret);
+                    break;
+
+                // handle loops ([ and ])
+                case Instruction.LOOP_START:
+                    this.emitLoop(code, i, Instruction.operand(instruction), ret);
+                    i = Instruction.operand(instruction);
+                    break;
+            }
+        }
+    }
+
+    private void emitLoop(CodeBuffer code, int start, int end, Label ret) {
+        Label head = new Label();
+        Label exit = new Label();
+
+        code.mark(head);
+        code.op(ALOAD, CELLS_LOCAL);
+        code.op(ILOAD, POINTER_LOCAL);
+        this.emitLoad(code);
+        code.jump(IFEQ, exit);
+
+        this.emitBody(code, start + 1, end, ret);
+
+        this.emitKillCheck(code, ret);
+        code.jump(GOTO, head);
+        code.mark(exit);
+    }
+
+    private void emitAddress(CodeBuffer code, int sum, Label ret) {
+        code.increment(POINTER_LOCAL, sum);
+        this.emitBoundsCheck(code, POINTER_LOCAL, sum, ret);
+    }
+
+    /**
+     * Compute the address of the cell at offset from the pointer and return the local holding it.
+     */
+    private int emitResolve(CodeBuffer code, int offset, Label ret) {
+        if (offset == 0) return POINTER_LOCAL;
+
+        code.op(ILOAD, POINTER_LOCAL);
+        code.pushInt(classWriter, offset);
+        code.op(IADD);
+        code.op(ISTORE, ADDRESS_LOCAL);
+        this.emitBoundsCheck(code, ADDRESS_LOCAL, offset, ret);
+
+        return ADDRESS_LOCAL;
+    }
+
+    /**
+     * Wrap around or report the address in local if it was moved out of bounds by delta.
+     */
+    private void emitBoundsCheck(CodeBuffer code, int local, int delta, Label ret) {
+        Label ok = new Label();
+
+        code.op(ILOAD, local);
+        if (delta > 0) {
+            code.pushInt(classWriter, this.memorySize);
+            code.jump(IF_ICMPLT, ok);
+        }
+        else {
+            code.jump(IFGE, ok);
+        }
+
+        if (this.wrapMemory) {
+            code.op(ILOAD, local);
+            code.pushInt(classWriter, this.memorySize);
+            code.op(delta > 0 ? ISUB : IADD);
+            code.op(ISTORE, local);
+        }
+        else {
+            code.op(ALOAD, HOST_LOCAL);
+            code.op(ILOAD, local);
+            code.invokeInterface(this.outOfBounds, 1);
+            code.jump(GOTO, ret);
+        }
+
+        code.mark(ok);
+    }
+
+    private void emitScan(CodeBuffer code, int method, int stride, Label ret) {
+        code.op(ALOAD, HOST_LOCAL);
+        code.op(ILOAD, POINTER_LOCAL);
+        code.pushInt(classWriter, stride);
+        code.invokeInterface(method, 2);
+        code.op(ISTORE, POINTER_LOCAL);
+
+        // a negative pointer means out of bounds or terminated
+        code.op(ILOAD, POINTER_LOCAL);
+        code.jump(IFLT, ret);
+    }
+
+    /**
+     * Replace the cells and index on the stack by the value of the cell.
+     */
+    private void emitLoad(CodeBuffer code) {
+        if (this.load < 0) code.op(BALOAD);
+        else code.opShort(INVOKESTATIC, this.load);
+    }
+
+    /**
+     * Store the value on the stack to the cell at the cells and index below it.
+     */
+    private void emitStore(CodeBuffer code) {
+        if (this.store < 0) code.op(BASTORE);
+        else code.opShort(INVOKESTATIC, this.store);
+    }
+
+    private void emitHostCall(CodeBuffer code, int method, int local) {
+        code.op(ALOAD, HOST_LOCAL);
+        code.op(ILOAD, local);
+        code.invokeInterface(method, 1);
+    }
+
+    private interface MethodBody {
+        void emit(CodeBuffer code, Label ret);
+    }
+
+}
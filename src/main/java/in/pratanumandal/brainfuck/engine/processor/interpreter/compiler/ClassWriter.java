@@ -0,0 +1,190 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal class file writer producing classes with static methods only.
+ * Classes are written with version 49 so that no stack map frames are required.
+ */
+public class ClassWriter {
+
+    private static final int MAJOR_VERSION = 49;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private final ByteArrayOutputStream constantPoolBytes;
+    private final DataOutputStream constantPool;
+    private final Map<String, Integer> constants;
+    private int constantCount;
+
+    private final ByteArrayOutputStream methodBytes;
+    private final DataOutputStream methods;
+    private int methodCount;
+
+    private final int thisClass;
+    private final int superClass;
+    private final int codeName;
+
+    public ClassWriter(String className) {
+        this.constantPoolBytes = new ByteArrayOutputStream();
+        this.constantPool = new DataOutputStream(constantPoolBytes);
+        this.constants = new HashMap<>();
+        this.constantCount = 1;
+
+        this.methodBytes = new ByteArrayOutputStream();
+        this.methods = new DataOutputStream(methodBytes);
+
+        this.thisClass = this.classConstant(className);
+        this.superClass = this.classConstant("java/lang/Object");
+        this.codeName = this.utf8Constant("Code");
+    }
+
+    public int getThisClass() {
+        return thisClass;
+    }
+
+    public int utf8Constant(String value) {
+        return this.constant("U" + value, out -> {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    public int integerConstant(int value) {
+        return this.constant("I" + value, out -> {
+            out.writeByte(CONSTANT_INTEGER);
+            out.writeInt(value);
+        });
+    }
+
+    public int classConstant(String name) {
+        int nameIndex = this.utf8Constant(name);
+        return this.constant("C" + name, out -> {
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(nameIndex);
+        });
+    }
+
+    public int methodConstant(int owner, String name, String descriptor) {
+        return this.memberConstant(CONSTANT_METHODREF, owner, name, descriptor);
+    }
+
+    public int interfaceMethodConstant(String owner, String name, String descriptor) {
+        return this.memberConstant(CONSTANT_INTERFACE_METHODREF, this.classConstant(owner), name, descriptor);
+    }
+
+    private int memberConstant(int tag, int owner, String name, String descriptor) {
+        int nameIndex = this.utf8Constant(name);
+        int descriptorIndex = this.utf8Constant(descriptor);
+        int nameAndType = this.constant("N" + name + ":" + descriptor, out -> {
+            out.writeByte(CONSTANT_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return this.constant("M" + tag + ":" + owner + ":" + nameAndType, out -> {
+            out.writeByte(tag);
+            out.writeShort(owner);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int constant(String key, ConstantWriter writer) {
+        Integer index = this.constants.get(key);
+        if (index != null) return index;
+
+        if (this.constantCount >= 0xFFFF) {
+            throw new CompilationException("Constant pool overflow");
+        }
+
+        try {
+            writer.write(this.constantPool);
+        } catch (IOException e) {
+            throw new CompilationException(e);
+        }
+
+        index = this.constantCount++;
+        this.constants.put(key, index);
+        return index;
+    }
+
+    public void addMethod(String name, String descriptor, int maxStack, int maxLocals, CodeBuffer code) {
+        if (code.length() > 0xFFFF) {
+            throw new CompilationException("Method " + name + " is too large");
+        }
+
+        int nameIndex = this.utf8Constant(name);
+        int descriptorIndex = this.utf8Constant(descriptor);
+
+        try {
+            methods.writeShort(ACC_PUBLIC | ACC_STATIC);
+            methods.writeShort(nameIndex);
+            methods.writeShort(descriptorIndex);
+            methods.writeShort(1);
+
+            // code attribute
+            methods.writeShort(this.codeName);
+            methods.writeInt(12 + code.length());
+            methods.writeShort(maxStack);
+            methods.writeShort(maxLocals);
+            methods.writeInt(code.length());
+            code.writeTo(methods);
+            methods.writeShort(0);
+            methods.writeShort(0);
+        } catch (IOException e) {
+            throw new CompilationException(e);
+        }
+
+        this.methodCount++;
+    }
+
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+
+            out.writeShort(this.constantCount);
+            this.constantPoolBytes.writeTo(out);
+
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(this.thisClass);
+            out.writeShort(this.superClass);
+
+            // interfaces and fields
+            out.writeShort(0);
+            out.writeShort(0);
+
+            out.writeShort(this.methodCount);
+            this.methodBytes.writeTo(out);
+
+            // attributes
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new CompilationException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private interface ConstantWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+}
@@ -0,0 +1,154 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter.compiler;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable bytecode buffer with support for forward and backward branch labels.
+ */
+public class CodeBuffer {
+
+    public static final int ICONST_0 = 0x03;
+    public static final int BIPUSH = 0x10;
+    public static final int SIPUSH = 0x11;
+    public static final int LDC_W = 0x13;
+    public static final int ILOAD = 0x15;
+    public static final int ALOAD = 0x19;
+    public static final int IALOAD = 0x2e;
+    public static final int BALOAD = 0x33;
+    public static final int SALOAD = 0x35;
+    public static final int ISTORE = 0x36;
+    public static final int IASTORE = 0x4f;
+    public static final int BASTORE = 0x54;
+    public static final int SASTORE = 0x56;
+    public static final int DUP2 = 0x5c;
+    public static final int IADD = 0x60;
+    public static final int ISUB = 0x64;
+    public static final int IMUL = 0x68;
+    public static final int IINC = 0x84;
+    public static final int I2B = 0x91;
+    public static final int I2S = 0x93;
+    public static final int IFEQ = 0x99;
+    public static final int IFNE = 0x9a;
+    public static final int IFLT = 0x9b;
+    public static final int IFGE = 0x9c;
+    public static final int IF_ICMPLT = 0xa1;
+    public static final int GOTO = 0xa7;
+    public static final int IRETURN = 0xac;
+    public static final int INVOKESTATIC = 0xb8;
+    public static final int INVOKEINTERFACE = 0xb9;
+    public static final int WIDE = 0xc4;
+
+    private byte[] code;
+    private int length;
+
+    public CodeBuffer() {
+        this.code = new byte[256];
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void op(int opcode) {
+        this.u1(opcode);
+    }
+
+    public void op(int opcode, int operand) {
+        this.u1(opcode);
+        this.u1(operand);
+    }
+
+    public void opShort(int opcode, int operand) {
+        this.u1(opcode);
+        this.u2(operand);
+    }
+
+    public void invokeInterface(int method, int argumentSlots) {
+        this.u1(INVOKEINTERFACE);
+        this.u2(method);
+        this.u1(argumentSlots + 1);
+        this.u1(0);
+    }
+
+    public void pushInt(ClassWriter classWriter, int value) {
+        if (value >= -1 && value <= 5) {
+            this.u1(ICONST_0 + value);
+        }
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            this.op(BIPUSH, value & 0xFF);
+        }
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            this.opShort(SIPUSH, value & 0xFFFF);
+        }
+        else {
+            this.opShort(LDC_W, classWriter.integerConstant(value));
+        }
+    }
+
+    public void increment(int local, int value) {
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            this.u1(IINC);
+            this.u1(local);
+            this.u1(value & 0xFF);
+        }
+        else {
+            this.u1(WIDE);
+            this.u1(IINC);
+            this.u2(local);
+            this.u2(value & 0xFFFF);
+        }
+    }
+
+    public void jump(int opcode, Label label) {
+        int position = this.length;
+        this.u1(opcode);
+        if (label.position >= 0) {
+            this.u2(label.position - position);
+        }
+        else {
+            label.fixups.add(position);
+            this.u2(0);
+        }
+    }
+
+    public void mark(Label label) {
+        label.position = this.length;
+        for (int position : label.fixups) {
+            int offset = this.length - position;
+            if (offset > Short.MAX_VALUE) {
+                throw new CompilationException("Branch offset out of range");
+            }
+            code[position + 1] = (byte) (offset >> 8);
+            code[position + 2] = (byte) offset;
+        }
+        label.fixups.clear();
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.write(this.code, 0, this.length);
+    }
+
+    private void u1(int value) {
+        if (this.length == this.code.length) {
+            this.code = Arrays.copyOf(this.code, this.code.length * 2);
+        }
+        this.code[this.length++] = (byte) value;
+    }
+
+    private void u2(int value) {
+        this.u1(value >> 8);
+        this.u1(value);
+    }
+
+    public static class Label {
+
+        private int position = -1;
+        private final List<Integer> fixups = new ArrayList<>();
+
+    }
+
+}
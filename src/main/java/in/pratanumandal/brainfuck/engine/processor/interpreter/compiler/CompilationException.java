@@ -0,0 +1,22 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter.compiler;
+
+public class CompilationException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CompilationException() {
+    }
+
+    public CompilationException(String message) {
+        super(message);
+    }
+
+    public CompilationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CompilationException(Throwable cause) {
+        super(cause);
+    }
+
+}
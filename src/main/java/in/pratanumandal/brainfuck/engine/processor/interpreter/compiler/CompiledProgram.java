@@ -0,0 +1,31 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter.compiler;
+
+import in.pratanumandal.brainfuck.engine.tape.Tape;
+import in.pratanumandal.brainfuck.engine.tape.Tape16;
+import in.pratanumandal.brainfuck.engine.tape.Tape32;
+import in.pratanumandal.brainfuck.engine.tape.Tape8;
+
+import java.lang.invoke.MethodHandle;
+
+public class CompiledProgram {
+
+    private final MethodHandle entry;
+
+    CompiledProgram(MethodHandle entry) {
+        this.entry = entry;
+    }
+
+    /**
+     * Run the compiled program on the tape and return the final memory pointer.
+     */
+    public int run(Host host, Tape tape) throws Throwable {
+        byte[] cells;
+
+        if (tape instanceof Tape8) cells = ((Tape8) tape).getCells();
+        else if (tape instanceof Tape16) cells = ((Tape16) tape).getCells();
+        else cells = ((Tape32) tape).getCells();
+
+        return (int) entry.invoke(host, cells, 0);
+    }
+
+}
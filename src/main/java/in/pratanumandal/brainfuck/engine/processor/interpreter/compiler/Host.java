@@ -0,0 +1,20 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter.compiler;
+
+/**
+ * Callbacks used by compiled programs for everything that is not plain memory access.
+ */
+public interface Host {
+
+    boolean isKilled();
+
+    void output(int pointer);
+
+    void input(int pointer);
+
+    int scanLeft(int pointer, int stride);
+
+    int scanRight(int pointer, int stride);
+
+    void outOfBounds(int pointer);
+
+}
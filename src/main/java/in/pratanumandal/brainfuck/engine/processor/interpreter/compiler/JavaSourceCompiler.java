@@ -0,0 +1,135 @@
+package in.pratanumandal.brainfuck.engine.processor.interpreter.compiler;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the Java source of a translated program in memory with the system Java compiler.
+ */
+public class JavaSourceCompiler {
+
+    /**
+     * Compile the source of a class and load it in a class loader of its own.
+     *
+     * @return the static run method of the class, taking a reader and an output stream
+     */
+    public static MethodHandle compile(String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new CompilationException("Java compiler not available");
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+
+        try (MemoryFileManager fileManager = new MemoryFileManager(compiler.getStandardFileManager(diagnostics, null, null), classes)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    List.of("-g:none", "-nowarn"), null, List.of(new SourceFile(className, source)));
+
+            if (!task.call()) {
+                String message = diagnostics.getDiagnostics().stream()
+                        .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                        .map(diagnostic -> diagnostic.getMessage(null))
+                        .findFirst()
+                        .orElse("Compilation failed");
+                throw new CompilationException(message);
+            }
+        } catch (IOException e) {
+            throw new CompilationException("Failed to compile program", e);
+        }
+
+        // the program only needs the platform classes
+        ClassLoader classLoader = new ClassLoader(ClassLoader.getPlatformClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                ByteArrayOutputStream bytes = classes.get(name);
+                if (bytes == null) throw new ClassNotFoundException(name);
+
+                byte[] code = bytes.toByteArray();
+                return this.defineClass(name, code, 0, code.length);
+            }
+        };
+
+        try {
+            Class<?> programClass = classLoader.loadClass(className);
+            MethodType methodType = MethodType.methodType(void.class, Reader.class, OutputStream.class);
+            return MethodHandles.publicLookup().findStatic(programClass, "run", methodType);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new CompilationException("Failed to load compiled program", e);
+        }
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return this.source;
+        }
+
+    }
+
+    private static class ClassFile extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream bytes;
+
+        ClassFile(String className, ByteArrayOutputStream bytes) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return this.bytes;
+        }
+
+    }
+
+    /**
+     * File manager keeping the compiled classes in memory instead of writing them to disk.
+     */
+    private static class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, ByteArrayOutputStream> classes;
+
+        MemoryFileManager(StandardJavaFileManager fileManager, Map<String, ByteArrayOutputStream> classes) {
+            super(fileManager);
+            this.classes = classes;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            this.classes.put(className, bytes);
+            return new ClassFile(className, bytes);
+        }
+
+    }
+
+}
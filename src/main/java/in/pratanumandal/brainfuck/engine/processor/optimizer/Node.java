@@ -0,0 +1,111 @@
+package in.pratanumandal.brainfuck.engine.processor.optimizer;
+
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
+
+import java.util.List;
+
+/**
+ * A single operation of the intermediate representation.
+ * Loops carry their body as a nested list of nodes.
+ */
+public class Node {
+
+    private final int opcode;
+    private final int offset;
+    private final int operand;
+    private final List<Node> body;
+
+    // range of the source this operation was generated from
+    private final int start;
+    private final int end;
+
+    private Node(int opcode, int offset, int operand, List<Node> body, int start, int end) {
+        this.opcode = opcode;
+        this.offset = offset;
+        this.operand = operand;
+        this.body = body;
+        this.start = start;
+        this.end = end;
+    }
+
+    public static Node of(int opcode, int offset, int operand, int start, int end) {
+        return new Node(opcode, offset, operand, null, start, end);
+    }
+
+    /**
+     * Create an operation replacing the given operation.
+     */
+    public static Node of(int opcode, int offset, int operand, Node source) {
+        return new Node(opcode, offset, operand, null, source.start, source.end);
+    }
+
+    /**
+     * Create an operation merging two operations.
+     */
+    public static Node of(int opcode, int offset, int operand, Node first, Node second) {
+        return new Node(opcode, offset, operand, null, Math.min(first.start, second.start), Math.max(first.end, second.end));
+    }
+
+    public static Node loop(List<Node> body, int start, int end) {
+        return new Node(Instruction.LOOP_START, 0, 0, body, start, end);
+    }
+
+    public int getOpcode() {
+        return opcode;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getOperand() {
+        return operand;
+    }
+
+    public List<Node> getBody() {
+        return body;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public boolean isLoop() {
+        return body != null;
+    }
+
+    /**
+     * Check whether this operation writes the cell at offset.
+     */
+    public boolean writes(int offset) {
+        switch (opcode) {
+            case Instruction.DATA:
+            case Instruction.SET:
+            case Instruction.INPUT:
+            case Instruction.MULTIPLY:
+                return this.offset == offset;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Check whether this operation reads the cell at offset.
+     */
+    public boolean reads(int offset) {
+        switch (opcode) {
+            case Instruction.OUTPUT:
+            case Instruction.DATA:
+                return this.offset == offset;
+            case Instruction.MULTIPLY:
+                return offset == 0 || this.offset == offset;
+            default:
+                return false;
+        }
+    }
+
+}
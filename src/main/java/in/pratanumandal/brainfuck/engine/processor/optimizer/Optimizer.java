@@ -0,0 +1,503 @@
+package in.pratanumandal.brainfuck.engine.processor.optimizer;
+
+import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+/**
+ * Translates brainfuck source into optimized instructions.
+ *
+ * The source is first parsed into a tree of nodes where pointer movements are
+ * folded into cell offsets, runs are merged, overwritten stores are dropped and
+ * simple loops are replaced by set, scan and multiply operations.
+ * A second pass tracks known cell values to fold constants and remove loops
+ * which can never be entered. The tree is finally flattened into instructions.
+ */
+public class Optimizer {
+
+    // limit the number of operations searched backwards for merging
+    private static final int LOOKBACK = 64;
+
+    private final String code;
+    private final int cellSize;
+    private final int memorySize;
+    private final int maxOffset;
+
+    // stop at # breakpoints
+    private final boolean breakpoints;
+
+    private Optimizer(String code, int cellSize, int memorySize, boolean breakpoints) {
+        this.code = code;
+        this.cellSize = cellSize;
+        this.memorySize = memorySize;
+        this.breakpoints = breakpoints;
+
+        // offsets must stay within one wrap around of the memory
+        this.maxOffset = Math.min(memorySize - 1, Instruction.MAX_OFFSET);
+    }
+
+    public static long[] optimize(String code, int cellSize, int memorySize) {
+        return optimize(code, cellSize, memorySize, null);
+    }
+
+    /**
+     * Optimize the source, recording the source range of each instruction in the source map if given.
+     */
+    public static long[] optimize(String code, int cellSize, int memorySize, SourceMap sourceMap) {
+        return optimize(code, cellSize, memorySize, sourceMap, false);
+    }
+
+    /**
+     * Optimize the source, keeping # as breakpoint instructions if breakpoints is set.
+     * Execution can be resumed after a breakpoint as nothing is assumed about the memory there.
+     */
+    public static long[] optimize(String code, int cellSize, int memorySize, SourceMap sourceMap, boolean breakpoints) {
+        Optimizer optimizer = new Optimizer(code, cellSize, memorySize, breakpoints);
+
+        List<Node> nodes = optimizer.parse();
+        nodes = optimizer.fold(nodes, new Knowledge(true, optimizer.memorySize));
+
+        return optimizer.flatten(nodes, sourceMap);
+    }
+
+    /**
+     * Parse the source into a tree of nodes.
+     */
+    private List<Node> parse() {
+        Stack<Block> stack = new Stack<>();
+        Block block = new Block(-1);
+
+        for (int i = 0; i < this.code.length(); i++) {
+            switch (this.code.charAt(i)) {
+                case '>': block.move(1, i); break;
+                case '<': block.move(-1, i); break;
+                case '+': block.add(Node.of(Instruction.DATA, block.offset, 1, i, i + 1)); break;
+                case '-': block.add(Node.of(Instruction.DATA, block.offset, -1, i, i + 1)); break;
+                case '.': block.add(Node.of(Instruction.OUTPUT, block.offset, 0, i, i + 1)); break;
+                case ',': block.add(Node.of(Instruction.INPUT, block.offset, 0, i, i + 1)); break;
+
+                case '#':
+                    // breakpoints see the memory as stepped so movements must be applied first
+                    if (this.breakpoints) {
+                        block.flush();
+                        block.nodes.add(Node.of(Instruction.BREAKPOINT, 0, 0, i, i + 1));
+                    }
+                    break;
+
+                case '[':
+                    // loops test the current cell so movements must be applied first
+                    block.flush();
+                    stack.push(block);
+                    block = new Block(i);
+                    break;
+
+                case ']':
+                    if (stack.isEmpty()) {
+                        Utils.throwUnmatchedBracketException(code, i + 1);
+                    }
+
+                    block.flush();
+                    Block loop = block;
+                    block = stack.pop();
+                    block.addLoop(loop.nodes, loop.position, i + 1);
+                    break;
+            }
+        }
+
+        if (!stack.isEmpty()) {
+            Utils.throwUnmatchedBracketException(code, block.position + 1);
+        }
+
+        block.flush();
+        return block.nodes;
+    }
+
+    /**
+     * Fold operations on cells with known values and remove loops which are never entered.
+     */
+    private List<Node> fold(List<Node> nodes, Knowledge knowledge) {
+        Block block = new Block(-1);
+
+        for (Node node : nodes) {
+            int offset = node.getOffset();
+            Integer value = knowledge.get(offset);
+
+            switch (node.getOpcode()) {
+                case Instruction.ADDRESS:
+                    block.nodes.add(node);
+                    knowledge.shift(node.getOperand());
+                    break;
+
+                case Instruction.DATA:
+                    if (value != null) {
+                        int result = this.normalize(value + node.getOperand());
+                        block.add(Node.of(Instruction.SET, offset, result, node));
+                        knowledge.set(offset, result);
+                    }
+                    else {
+                        block.add(node);
+                    }
+                    break;
+
+                case Instruction.SET:
+                    // drop stores which do not change the cell
+                    if (value == null || value != node.getOperand()) {
+                        block.add(node);
+                        knowledge.set(offset, node.getOperand());
+                    }
+                    break;
+
+                case Instruction.INPUT:
+                    block.add(node);
+                    knowledge.forget(offset);
+                    break;
+
+                case Instruction.OUTPUT:
+                    block.add(node);
+                    break;
+
+                case Instruction.MULTIPLY:
+                    Integer source = knowledge.get(0);
+                    if (source == null) {
+                        block.add(node);
+                        knowledge.forget(offset);
+                    }
+                    else if (source != 0) {
+                        int product = source * node.getOperand();
+                        if (value != null) {
+                            int result = this.normalize(value + product);
+                            block.add(Node.of(Instruction.SET, offset, result, node));
+                            knowledge.set(offset, result);
+                        }
+                        else {
+                            block.add(Node.of(Instruction.DATA, offset, product, node));
+                        }
+                    }
+                    break;
+
+                case Instruction.SCAN_ZERO_LEFT:
+                case Instruction.SCAN_ZERO_RIGHT:
+                    block.nodes.add(node);
+                    knowledge.reset();
+                    break;
+
+                case Instruction.BREAKPOINT:
+                    block.nodes.add(node);
+                    knowledge.clear();
+                    break;
+
+                case Instruction.LOOP_START:
+                    // loops on a zero cell are never entered
+                    if (value == null || value != 0) {
+                        block.addLoop(this.fold(node.getBody(), new Knowledge(false, this.memorySize)), node.getStart(), node.getEnd());
+                        knowledge.reset();
+                    }
+                    break;
+            }
+        }
+
+        return block.nodes;
+    }
+
+    /**
+     * Flatten the tree into encoded instructions with linked loop brackets.
+     */
+    private long[] flatten(List<Node> nodes, SourceMap sourceMap) {
+        Output output = new Output();
+        this.flatten(nodes, output);
+
+        if (sourceMap != null) {
+            sourceMap.set(Arrays.copyOf(output.starts, output.length), Arrays.copyOf(output.ends, output.length));
+        }
+
+        return Arrays.copyOf(output.instructions, output.length);
+    }
+
+    private void flatten(List<Node> nodes, Output output) {
+        for (Node node : nodes) {
+            if (node.isLoop()) {
+                // brackets map to their own positions
+                int start = output.append(0, node.getStart(), node.getStart() + 1);
+                this.flatten(node.getBody(), output);
+                int end = output.append(Instruction.encode(Instruction.LOOP_END, start), node.getEnd() - 1, node.getEnd());
+                output.instructions[start] = Instruction.encode(Instruction.LOOP_START, end);
+            }
+            else {
+                output.append(Instruction.encode(node.getOpcode(), node.getOffset(), node.getOperand()), node.getStart(), node.getEnd());
+            }
+        }
+    }
+
+    /**
+     * Reduce a value to the range of a cell.
+     */
+    private int normalize(int value) {
+        switch (this.cellSize) {
+            case 8: return value & 0xFF;
+            case 16: return value & 0xFFFF;
+            default: return value;
+        }
+    }
+
+    /**
+     * Straight-line sequence of nodes under construction.
+     */
+    private class Block {
+
+        private final List<Node> nodes = new ArrayList<>();
+
+        // position of the opening bracket in the source
+        private final int position;
+
+        // pointer movement not yet applied
+        private int offset;
+
+        // source range of the pointer movements not yet applied
+        private int moveStart = -1;
+        private int moveEnd;
+
+        private Block(int position) {
+            this.position = position;
+        }
+
+        private void move(int delta, int position) {
+            if (this.moveStart < 0) this.moveStart = position;
+            this.moveEnd = position + 1;
+
+            this.offset += delta;
+            if (Math.abs(this.offset) >= maxOffset) this.flush();
+        }
+
+        private void flush() {
+            if (this.offset != 0) {
+                this.nodes.add(Node.of(Instruction.ADDRESS, 0, this.offset, this.moveStart, this.moveEnd));
+                this.offset = 0;
+            }
+            this.moveStart = -1;
+        }
+
+        /**
+         * Append an operation, merging it with the previous operation on the same cell.
+         */
+        private void add(Node node) {
+            int opcode = node.getOpcode();
+            int offset = node.getOffset();
+
+            int index = this.findLast(offset);
+            Node last = index < 0 ? null : this.nodes.get(index);
+
+            if (last != null && opcode == Instruction.DATA) {
+                // merge consecutive updates of a cell
+                if (last.getOpcode() == Instruction.DATA) {
+                    int sum = last.getOperand() + node.getOperand();
+                    if (normalize(sum) == 0) this.nodes.remove(index);
+                    else this.nodes.set(index, Node.of(Instruction.DATA, offset, sum, last, node));
+                    return;
+                }
+                if (last.getOpcode() == Instruction.SET) {
+                    this.nodes.set(index, Node.of(Instruction.SET, offset, normalize(last.getOperand() + node.getOperand()), last, node));
+                    return;
+                }
+            }
+
+            if (last != null && (opcode == Instruction.SET || opcode == Instruction.INPUT)) {
+                // drop stores overwritten before being read
+                int lastOpcode = last.getOpcode();
+                if (last.getOffset() == offset && (lastOpcode == Instruction.DATA ||
+                        lastOpcode == Instruction.SET || lastOpcode == Instruction.MULTIPLY)) {
+                    this.nodes.remove(index);
+                }
+            }
+
+            if (opcode == Instruction.DATA && normalize(node.getOperand()) == 0) return;
+
+            this.nodes.add(node);
+        }
+
+        /**
+         * Find the last operation accessing the cell at offset in the trailing straight-line code.
+         */
+        private int findLast(int offset) {
+            int limit = Math.max(0, this.nodes.size() - LOOKBACK);
+
+            for (int i = this.nodes.size() - 1; i >= limit; i--) {
+                Node node = this.nodes.get(i);
+
+                switch (node.getOpcode()) {
+                    case Instruction.DATA:
+                    case Instruction.SET:
+                    case Instruction.INPUT:
+                    case Instruction.OUTPUT:
+                    case Instruction.MULTIPLY:
+                        if (node.reads(offset) || node.writes(offset)) return i;
+                        break;
+
+                    default:
+                        return -1;
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * Append a loop, replacing it with simpler operations when possible.
+         */
+        private void addLoop(List<Node> body, int start, int end) {
+            if (body.size() == 1) {
+                Node node = body.get(0);
+
+                // [-], [+] and [[-]] clear the cell
+                if (node.getOffset() == 0 && (this.isStep(node) ||
+                        (node.getOpcode() == Instruction.SET && node.getOperand() == 0))) {
+                    this.add(Node.of(Instruction.SET, 0, 0, start, end));
+                    return;
+                }
+
+                // [<], [>>] and so on scan for a zero cell
+                if (node.getOpcode() == Instruction.ADDRESS) {
+                    int stride = node.getOperand();
+                    this.nodes.add(Node.of(stride < 0 ? Instruction.SCAN_ZERO_LEFT : Instruction.SCAN_ZERO_RIGHT, 0, Math.abs(stride), start, end));
+                    return;
+                }
+            }
+
+            if (this.isMultiplyLoop(body)) {
+                // the loop runs value times if decrementing and -value times if incrementing
+                int sign = 1;
+                for (Node node : body) {
+                    if (node.getOffset() == 0 && normalize(node.getOperand()) == 1) sign = -1;
+                }
+
+                for (Node node : body) {
+                    if (node.getOffset() != 0) {
+                        this.add(Node.of(Instruction.MULTIPLY, node.getOffset(), sign * node.getOperand(), start, end));
+                    }
+                }
+                this.add(Node.of(Instruction.SET, 0, 0, start, end));
+                return;
+            }
+
+            this.nodes.add(Node.loop(body, start, end));
+        }
+
+        /**
+         * Check for a balanced loop which only updates cells and steps the current cell by one.
+         */
+        private boolean isMultiplyLoop(List<Node> body) {
+            int steps = 0;
+
+            for (Node node : body) {
+                if (node.getOpcode() != Instruction.DATA) return false;
+                if (node.getOffset() == 0) {
+                    if (!this.isStep(node)) return false;
+                    steps++;
+                }
+            }
+
+            return steps == 1;
+        }
+
+        private boolean isStep(Node node) {
+            if (node.getOpcode() != Instruction.DATA) return false;
+            int value = normalize(node.getOperand());
+            return value == 1 || value == normalize(-1);
+        }
+
+    }
+
+    /**
+     * Known cell values relative to the data pointer.
+     */
+    private static class Knowledge {
+
+        // values by position relative to the initial data pointer, null if unknown
+        private final Map<Integer, Integer> values = new HashMap<>();
+
+        // positions are reduced modulo the memory size, since the pointer can go round the tape
+        private final int memorySize;
+
+        // movement of the data pointer since the initial position
+        private int base;
+
+        // whether cells without an entry are zero
+        private boolean zero;
+
+        private Knowledge(boolean zero, int memorySize) {
+            this.zero = zero;
+            this.memorySize = memorySize;
+        }
+
+        private int position(int offset) {
+            return Math.floorMod(this.base + offset, this.memorySize);
+        }
+
+        private Integer get(int offset) {
+            int position = this.position(offset);
+            if (this.values.containsKey(position)) return this.values.get(position);
+            return this.zero ? 0 : null;
+        }
+
+        private void set(int offset, int value) {
+            this.values.put(this.position(offset), value);
+        }
+
+        private void forget(int offset) {
+            if (this.zero) this.values.put(this.position(offset), null);
+            else this.values.remove(this.position(offset));
+        }
+
+        private void shift(int delta) {
+            this.base = Math.floorMod(this.base + delta, this.memorySize);
+        }
+
+        /**
+         * Forget everything except that the current cell is zero.
+         */
+        private void reset() {
+            this.values.clear();
+            this.values.put(this.base, 0);
+            this.zero = false;
+        }
+
+        /**
+         * Forget everything.
+         */
+        private void clear() {
+            this.values.clear();
+            this.zero = false;
+        }
+
+    }
+
+    /**
+     * Growable instruction buffer.
+     */
+    private static class Output {
+
+        private long[] instructions = new long[256];
+        private int[] starts = new int[256];
+        private int[] ends = new int[256];
+        private int length;
+
+        private int append(long instruction, int start, int end) {
+            if (this.length == this.instructions.length) {
+                this.instructions = Arrays.copyOf(this.instructions, this.length * 2);
+                this.starts = Arrays.copyOf(this.starts, this.length * 2);
+                this.ends = Arrays.copyOf(this.ends, this.length * 2);
+            }
+            this.instructions[this.length] = instruction;
+            this.starts[this.length] = start;
+            this.ends[this.length] = end;
+            return this.length++;
+        }
+
+    }
+
+}
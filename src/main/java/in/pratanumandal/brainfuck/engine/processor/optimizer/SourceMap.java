@@ -0,0 +1,29 @@
+package in.pratanumandal.brainfuck.engine.processor.optimizer;
+
+/**
+ * Range of the source each instruction was generated from.
+ * Positions refer to the source given to the optimizer, loop brackets map to the bracket itself.
+ */
+public class SourceMap {
+
+    private int[] starts = new int[0];
+    private int[] ends = new int[0];
+
+    void set(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public int size() {
+        return this.starts.length;
+    }
+
+    public int getStart(int instruction) {
+        return this.starts[instruction];
+    }
+
+    public int getEnd(int instruction) {
+        return this.ends[instruction];
+    }
+
+}
@@ -0,0 +1,419 @@
+package in.pratanumandal.brainfuck.engine.processor.translator;
+
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
+import in.pratanumandal.brainfuck.gui.component.TabData;
+import javafx.stage.FileChooser;
+
+import java.io.IOException;
+
+/**
+ * Translates programs to GNU assembler source for Linux x86-64, using system calls directly.
+ *
+ * The generated code keeps the memory base in rbx, the data pointer in r12, the length of the
+ * output buffer in r13 and the position and length of the input buffer in r14 and r15.
+ */
+public class AssemblyTranslator extends Translator {
+
+    private static final int OUTPUT_SIZE = 65536;
+    private static final int INPUT_SIZE = 4096;
+
+    // operand size suffix, value register and zero extending load of a cell
+    private final String suffix;
+    private final String register;
+    private final String load;
+    private final int scale;
+
+    public AssemblyTranslator(TabData tabData) {
+        super(tabData);
+
+        this.suffix = (this.cellSize == 8) ? "b" : (this.cellSize == 16) ? "w" : "l";
+        this.register = (this.cellSize == 8) ? "%al" : (this.cellSize == 16) ? "%ax" : "%eax";
+        this.load = (this.cellSize == 8) ? "movzbl" : (this.cellSize == 16) ? "movzwl" : "movl";
+        this.scale = this.cellSize / 8;
+    }
+
+    @Override
+    public void doTranslate(TranslationWriter writer) throws IOException {
+        writer.writeLine("# Build with: as -o program.o program.s && ld -o program program.o");
+        writer.writeLine();
+        writer.writeLine(".set MEMORY_SIZE, " + this.memorySize);
+        writer.writeLine(".set OUTPUT_SIZE, " + OUTPUT_SIZE);
+        writer.writeLine(".set INPUT_SIZE, " + INPUT_SIZE);
+        writer.writeLine();
+
+        writer.writeLine(".bss");
+        writer.writeLine(".align 64");
+        writer.writeLine("memory: .skip MEMORY_SIZE * " + this.scale);
+        writer.writeLine("output: .skip OUTPUT_SIZE");
+        writer.writeLine("input: .skip INPUT_SIZE");
+        writer.writeLine("number: .skip 24");
+        writer.writeLine();
+
+        writer.writeLine(".section .rodata");
+        writer.writeLine("message: .ascii \"\\nError: Memory index out of bounds \"");
+        writer.writeLine(".set MESSAGE_LENGTH, . - message");
+        writer.writeLine();
+
+        writer.writeLine(".text");
+        writer.writeLine();
+
+        this.writeFlushOutput(writer);
+        this.writePutSymbol(writer);
+        this.writeGetSymbol(writer);
+        if (!this.wrapMemory) this.writeOutOfBounds(writer);
+
+        writer.writeLine(".globl _start");
+        writer.writeLine("_start:");
+        writer.updateIndentation(1);
+        writer.writeLine("lea memory(%rip), %rbx");
+        writer.writeLine("xor %r12, %r12");
+        writer.writeLine("xor %r13, %r13");
+        writer.writeLine("xor %r14, %r14");
+        writer.writeLine("xor %r15, %r15");
+        writer.writeLine();
+
+        for (int i = 0; i < instructions.length && !this.kill.get(); i++) {
+            this.setProgress(i);
+
+            long instruction = instructions[i];
+            int opcode = Instruction.opcode(instruction);
+
+            // handle pointer movement (> and <)
+            if (opcode == Instruction.ADDRESS) {
+                int sum = Instruction.operand(instruction);
+                writer.writeLine("add $" + sum + ", %r12");
+                this.writeBoundary(writer, "%r12", sum > 0);
+            }
+            // handle value update (+ and -)
+            else if (opcode == Instruction.DATA) {
+                int sum = Instruction.operand(instruction);
+                writer.writeLine("add" + suffix + " $" + this.signed(sum) + ", " + this.cell(writer, instruction));
+            }
+            // handle output (.)
+            else if (opcode == Instruction.OUTPUT) {
+                writer.writeLine(load + " " + this.cell(writer, instruction) + ", %eax");
+                writer.writeLine("call put_symbol");
+            }
+            // handle input (,)
+            else if (opcode == Instruction.INPUT) {
+                writer.writeLine("call get_symbol");
+                writer.writeLine("mov " + register + ", " + this.cell(writer, instruction));
+            }
+            // handle [-] and constant stores
+            else if (opcode == Instruction.SET) {
+                int value = Instruction.operand(instruction);
+                writer.writeLine("mov" + suffix + " $" + this.unsigned(value) + ", " + this.cell(writer, instruction));
+            }
+            // handle multiplication loops such as [->++<]
+            else if (opcode == Instruction.MULTIPLY) {
+                int factor = Instruction.operand(instruction);
+                writer.writeLine(load + " (%rbx,%r12," + scale + "), %eax");
+                writer.writeLine("test %eax, %eax");
+                writer.writeLine("jz 9f");
+                writer.writeLine("imul $" + factor + ", %eax, %eax");
+                writer.writeLine("add " + register + ", " + this.cell(writer, instruction));
+                this.writeLabel(writer, "9:");
+            }
+            // handle [<], [<<] and so on
+            else if (opcode == Instruction.SCAN_ZERO_LEFT) {
+                this.writeScan(writer, -Instruction.operand(instruction));
+            }
+            // handle [>], [>>] and so on
+            else if (opcode == Instruction.SCAN_ZERO_RIGHT) {
+                this.writeScan(writer, Instruction.operand(instruction));
+            }
+            // handle loop opening ([)
+            else if (opcode == Instruction.LOOP_START) {
+                writer.writeLine("cmp" + suffix + " $0, (%rbx,%r12," + scale + ")");
+                writer.writeLine("je .Lend" + i);
+                this.writeLabel(writer, ".Lbody" + i + ":");
+            }
+            // handle loop closing (])
+            else if (opcode == Instruction.LOOP_END) {
+                int start = Instruction.operand(instruction);
+                writer.writeLine("cmp" + suffix + " $0, (%rbx,%r12," + scale + ")");
+                writer.writeLine("jne .Lbody" + start);
+                this.writeLabel(writer, ".Lend" + start + ":");
+            }
+        }
+
+        writer.writeLine();
+        writer.writeLine("call flush_output");
+        writer.writeLine("mov $60, %eax");
+        writer.writeLine("xor %edi, %edi");
+        writer.writeLine("syscall");
+        writer.updateIndentation(-1);
+    }
+
+    /**
+     * Write all buffered output to standard output.
+     */
+    private void writeFlushOutput(TranslationWriter writer) throws IOException {
+        writer.writeLine("flush_output:");
+        writer.updateIndentation(1);
+        writer.writeLine("lea output(%rip), %rsi");
+        writer.writeLine("mov %r13, %rdx");
+        this.writeLabel(writer, "1:");
+        writer.writeLine("test %rdx, %rdx");
+        writer.writeLine("jz 2f");
+        writer.writeLine("mov $1, %eax");
+        writer.writeLine("mov $1, %edi");
+        writer.writeLine("syscall");
+        writer.writeLine("test %rax, %rax");
+        writer.writeLine("jle 2f");
+        writer.writeLine("add %rax, %rsi");
+        writer.writeLine("sub %rax, %rdx");
+        writer.writeLine("jmp 1b");
+        this.writeLabel(writer, "2:");
+        writer.writeLine("xor %r13, %r13");
+        writer.writeLine("ret");
+        writer.updateIndentation(-1);
+        writer.writeLine();
+    }
+
+    /**
+     * Append the code point in eax to the output buffer as UTF-8, flushing the buffer when it is full.
+     */
+    private void writePutSymbol(TranslationWriter writer) throws IOException {
+        writer.writeLine("put_symbol:");
+        writer.updateIndentation(1);
+        writer.writeLine("cmp $OUTPUT_SIZE - 4, %r13");
+        writer.writeLine("jbe 1f");
+        writer.writeLine("push %rax");
+        writer.writeLine("call flush_output");
+        writer.writeLine("pop %rax");
+        this.writeLabel(writer, "1:");
+        writer.writeLine("lea output(%rip), %rdi");
+        writer.writeLine("add %r13, %rdi");
+        writer.writeLine("cmp $0x7f, %eax");
+        writer.writeLine("ja 2f");
+        writer.writeLine("mov %al, (%rdi)");
+        writer.writeLine("inc %r13");
+        writer.writeLine("ret");
+        this.writeLabel(writer, "2:");
+        writer.writeLine("cmp $0x7ff, %eax");
+        writer.writeLine("ja 3f");
+        writer.writeLine("mov %eax, %edx");
+        writer.writeLine("shr $6, %edx");
+        writer.writeLine("or $0xc0, %dl");
+        writer.writeLine("mov %dl, (%rdi)");
+        writer.writeLine("and $0x3f, %al");
+        writer.writeLine("or $0x80, %al");
+        writer.writeLine("mov %al, 1(%rdi)");
+        writer.writeLine("add $2, %r13");
+        writer.writeLine("ret");
+        this.writeLabel(writer, "3:");
+        writer.writeLine("cmp $0xffff, %eax");
+        writer.writeLine("ja 4f");
+        writer.writeLine("mov %eax, %edx");
+        writer.writeLine("shr $12, %edx");
+        writer.writeLine("or $0xe0, %dl");
+        writer.writeLine("mov %dl, (%rdi)");
+        writer.writeLine("mov %eax, %edx");
+        writer.writeLine("shr $6, %edx");
+        writer.writeLine("and $0x3f, %dl");
+        writer.writeLine("or $0x80, %dl");
+        writer.writeLine("mov %dl, 1(%rdi)");
+        writer.writeLine("and $0x3f, %al");
+        writer.writeLine("or $0x80, %al");
+        writer.writeLine("mov %al, 2(%rdi)");
+        writer.writeLine("add $3, %r13");
+        writer.writeLine("ret");
+        this.writeLabel(writer, "4:");
+        writer.writeLine("cmp $0x10ffff, %eax");
+        writer.writeLine("ja 5f");
+        writer.writeLine("mov %eax, %edx");
+        writer.writeLine("shr $18, %edx");
+        writer.writeLine("or $0xf0, %dl");
+        writer.writeLine("mov %dl, (%rdi)");
+        writer.writeLine("mov %eax, %edx");
+        writer.writeLine("shr $12, %edx");
+        writer.writeLine("and $0x3f, %dl");
+        writer.writeLine("or $0x80, %dl");
+        writer.writeLine("mov %dl, 1(%rdi)");
+        writer.writeLine("mov %eax, %edx");
+        writer.writeLine("shr $6, %edx");
+        writer.writeLine("and $0x3f, %dl");
+        writer.writeLine("or $0x80, %dl");
+        writer.writeLine("mov %dl, 2(%rdi)");
+        writer.writeLine("and $0x3f, %al");
+        writer.writeLine("or $0x80, %al");
+        writer.writeLine("mov %al, 3(%rdi)");
+        writer.writeLine("add $4, %r13");
+        writer.writeLine("ret");
+
+        // same as the interpreter for values which are not code points
+        this.writeLabel(writer, "5:");
+        writer.writeLine("movb $'N', (%rdi)");
+        writer.writeLine("movb $'/', 1(%rdi)");
+        writer.writeLine("movb $'A', 2(%rdi)");
+        writer.writeLine("add $3, %r13");
+        writer.writeLine("ret");
+        writer.updateIndentation(-1);
+        writer.writeLine();
+    }
+
+    /**
+     * Read the next byte of input into eax, or 0 at the end of input.
+     * The output is flushed first when the program has to wait for input.
+     */
+    private void writeGetSymbol(TranslationWriter writer) throws IOException {
+        writer.writeLine("get_symbol:");
+        writer.updateIndentation(1);
+        writer.writeLine("cmp %r15, %r14");
+        writer.writeLine("jb 2f");
+        writer.writeLine("call flush_output");
+        writer.writeLine("xor %eax, %eax");
+        writer.writeLine("xor %edi, %edi");
+        writer.writeLine("lea input(%rip), %rsi");
+        writer.writeLine("mov $INPUT_SIZE, %edx");
+        writer.writeLine("syscall");
+        writer.writeLine("test %rax, %rax");
+        writer.writeLine("jg 1f");
+        writer.writeLine("xor %eax, %eax");
+        writer.writeLine("ret");
+        this.writeLabel(writer, "1:");
+        writer.writeLine("mov %rax, %r15");
+        writer.writeLine("xor %r14, %r14");
+        this.writeLabel(writer, "2:");
+        writer.writeLine("lea input(%rip), %rsi");
+        writer.writeLine("movzbl (%rsi,%r14), %eax");
+        writer.writeLine("inc %r14");
+        writer.writeLine("ret");
+        writer.updateIndentation(-1);
+        writer.writeLine();
+    }
+
+    /**
+     * Report the memory index in rdi to standard error and exit.
+     */
+    private void writeOutOfBounds(TranslationWriter writer) throws IOException {
+        writer.writeLine("out_of_bounds:");
+        writer.updateIndentation(1);
+        writer.writeLine("mov %rdi, %r12");
+        writer.writeLine("call flush_output");
+        writer.writeLine("mov $1, %eax");
+        writer.writeLine("mov $2, %edi");
+        writer.writeLine("lea message(%rip), %rsi");
+        writer.writeLine("mov $MESSAGE_LENGTH, %edx");
+        writer.writeLine("syscall");
+        writer.writeLine();
+
+        // format the index backwards from the end of the number buffer
+        writer.writeLine("lea number+24(%rip), %r8");
+        writer.writeLine("lea -1(%r8), %rsi");
+        writer.writeLine("movb $10, (%rsi)");
+        writer.writeLine("mov %r12, %rax");
+        writer.writeLine("test %rax, %rax");
+        writer.writeLine("jns 1f");
+        writer.writeLine("neg %rax");
+        this.writeLabel(writer, "1:");
+        writer.writeLine("mov $10, %ecx");
+        this.writeLabel(writer, "2:");
+        writer.writeLine("xor %edx, %edx");
+        writer.writeLine("div %rcx");
+        writer.writeLine("add $'0', %dl");
+        writer.writeLine("dec %rsi");
+        writer.writeLine("mov %dl, (%rsi)");
+        writer.writeLine("test %rax, %rax");
+        writer.writeLine("jnz 2b");
+        writer.writeLine("test %r12, %r12");
+        writer.writeLine("jns 3f");
+        writer.writeLine("dec %rsi");
+        writer.writeLine("movb $'-', (%rsi)");
+        this.writeLabel(writer, "3:");
+        writer.writeLine("mov %r8, %rdx");
+        writer.writeLine("sub %rsi, %rdx");
+        writer.writeLine("mov $1, %eax");
+        writer.writeLine("mov $2, %edi");
+        writer.writeLine("syscall");
+        writer.writeLine();
+        writer.writeLine("mov $60, %eax");
+        writer.writeLine("mov $1, %edi");
+        writer.writeLine("syscall");
+        writer.updateIndentation(-1);
+        writer.writeLine();
+    }
+
+    /**
+     * Write a scan for a zero cell moving the pointer by stride.
+     */
+    private void writeScan(TranslationWriter writer, int stride) throws IOException {
+        this.writeLabel(writer, "5:");
+        writer.writeLine("cmp" + suffix + " $0, (%rbx,%r12," + scale + ")");
+        writer.writeLine("je 6f");
+        writer.writeLine("add $" + stride + ", %r12");
+        this.writeBoundary(writer, "%r12", stride > 0);
+        writer.writeLine("jmp 5b");
+        this.writeLabel(writer, "6:");
+    }
+
+    /**
+     * Write the wrap or bounds check of an index after it moved in one direction.
+     */
+    private void writeBoundary(TranslationWriter writer, String index, boolean right) throws IOException {
+        if (this.wrapMemory) {
+            if (right) {
+                writer.writeLine("cmp $MEMORY_SIZE, " + index);
+                writer.writeLine("jl 7f");
+                writer.writeLine("sub $MEMORY_SIZE, " + index);
+            }
+            else {
+                writer.writeLine("test " + index + ", " + index);
+                writer.writeLine("jns 7f");
+                writer.writeLine("add $MEMORY_SIZE, " + index);
+            }
+            this.writeLabel(writer, "7:");
+        }
+        else {
+            // negative indices compare above the memory size as unsigned numbers
+            writer.writeLine("cmp $MEMORY_SIZE, " + index);
+            writer.writeLine("jb 7f");
+            writer.writeLine("mov " + index + ", %rdi");
+            writer.writeLine("jmp out_of_bounds");
+            this.writeLabel(writer, "7:");
+        }
+    }
+
+    /**
+     * Get the operand of the cell of an instruction, writing the index computation of an offset cell into rcx.
+     */
+    private String cell(TranslationWriter writer, long instruction) throws IOException {
+        int offset = Instruction.offset(instruction);
+        if (offset == 0) return "(%rbx,%r12," + scale + ")";
+
+        writer.writeLine("lea " + offset + "(%r12), %rcx");
+        this.writeBoundary(writer, "%rcx", offset > 0);
+        return "(%rbx,%rcx," + scale + ")";
+    }
+
+    private void writeLabel(TranslationWriter writer, String label) throws IOException {
+        writer.updateIndentation(-1);
+        writer.writeLine(label);
+        writer.updateIndentation(1);
+    }
+
+    private String signed(int value) {
+        return (this.cellSize == 8) ? String.valueOf((byte) value) : (this.cellSize == 16) ? String.valueOf((short) value) : String.valueOf(value);
+    }
+
+    private String unsigned(int value) {
+        return (this.cellSize == 8) ? String.valueOf(value & 0xFF) : (this.cellSize == 16) ? String.valueOf(value & 0xFFFF) : Integer.toUnsignedString(value);
+    }
+
+    @Override
+    public String getLanguage() {
+        return "x86-64 Assembly";
+    }
+
+    @Override
+    public String getExtension() {
+        return "s";
+    }
+
+    @Override
+    public FileChooser.ExtensionFilter getExtensionFilter() {
+        return new FileChooser.ExtensionFilter("Assembly files (*.s)", "*.s");
+    }
+
+}
@@ -1,9 +1,7 @@
 package in.pratanumandal.brainfuck.engine.processor.translator;
 
 import com.sun.jna.Platform;
-import in.pratanumandal.brainfuck.common.Configuration;
-import in.pratanumandal.brainfuck.common.Utils;
-import in.pratanumandal.brainfuck.gui.component.NotificationManager;
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
 import in.pratanumandal.brainfuck.gui.component.TabData;
 import javafx.stage.FileChooser;
 
@@ -16,108 +14,129 @@ public class CTranslator extends Translator {
     }
 
     @Override
-    public void doTranslate(NotificationManager.Notification notification, TranslationWriter writer) throws IOException {
+    public void doTranslate(TranslationWriter writer) throws IOException {
         String datatype = (this.cellSize == 8) ? "unsigned char" : (this.cellSize == 16) ? "unsigned short" : "unsigned int";
 
         writer.writeLine("#include <stdio.h>");
         writer.writeLine("#include <stdlib.h>");
         writer.writeLine("#include <string.h>");
         writer.writeLine();
-        writer.writeLine("#define MEMORY_SIZE " + Configuration.getMemorySize());
+        writer.writeLine("#define MEMORY_SIZE " + this.memorySize);
+        writer.writeLine("#define OUTPUT_SIZE 65536");
         writer.writeLine();
 
-        writer.writeLine("int findZeroLeft(" + datatype + " *memory, int position) {");
-        writer.updateIndentation(1);
-        writer.writeLine("for (int i = position; i >= 0; i--) {");
-        writer.updateIndentation(1);
-        writer.writeLine("if (memory[i] == 0) return i;");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine("for (int i = MEMORY_SIZE - 1; i > position; i--) {");
+        writer.writeLine("static " + datatype + " *memory;");
+        writer.writeLine();
+
+        // output is encoded into a buffer and written in large blocks
+        writer.writeLine("static unsigned char output[OUTPUT_SIZE];");
+        writer.writeLine("static int outputLength = 0;");
+        writer.writeLine();
+
+        writer.writeLine("static void flushOutput(void) {");
         writer.updateIndentation(1);
-        writer.writeLine("if (memory[i] == 0) return i;");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine("return -1;");
+        writer.writeLine("if (outputLength == 0) return;");
+        writer.writeLine("fwrite(output, 1, outputLength, stdout);");
+        writer.writeLine("fflush(stdout);");
+        writer.writeLine("outputLength = 0;");
         writer.updateIndentation(-1);
         writer.writeLine("}");
         writer.writeLine();
 
-        writer.writeLine("int findZeroRight(" + datatype + " *memory, int position) {");
+        writer.writeLine("static inline void writeSymbol(" + datatype + " codepoint) {");
         writer.updateIndentation(1);
-        writer.writeLine("for (int i = position; i < MEMORY_SIZE; i++) {");
+        writer.writeLine("if (outputLength > OUTPUT_SIZE - 4) flushOutput();");
+        writer.writeLine();
+        writer.writeLine("if (codepoint <= 0x7f) {");
         writer.updateIndentation(1);
-        writer.writeLine("if (memory[i] == 0) return i;");
+        writer.writeLine("output[outputLength++] = (unsigned char) codepoint;");
         writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine("for (int i = 0; i < position; i++) {");
+        if (this.cellSize == 8) {
+            writer.writeLine("}");
+            writer.writeLine("else {");
+        }
+        else {
+            writer.writeLine("}");
+            writer.writeLine("else if (codepoint <= 0x7ff) {");
+        }
         writer.updateIndentation(1);
-        writer.writeLine("if (memory[i] == 0) return i;");
+        writer.writeLine("output[outputLength++] = (unsigned char) (0xc0 | (codepoint >> 6));");
+        writer.writeLine("output[outputLength++] = (unsigned char) (0x80 | (codepoint & 0x3f));");
         writer.updateIndentation(-1);
+        if (this.cellSize == 16) {
+            writer.writeLine("}");
+            writer.writeLine("else {");
+        }
+        else if (this.cellSize == 32) {
+            writer.writeLine("}");
+            writer.writeLine("else if (codepoint <= 0xffff) {");
+        }
+        if (this.cellSize != 8) {
+            writer.updateIndentation(1);
+            writer.writeLine("output[outputLength++] = (unsigned char) (0xe0 | (codepoint >> 12));");
+            writer.writeLine("output[outputLength++] = (unsigned char) (0x80 | ((codepoint >> 6) & 0x3f));");
+            writer.writeLine("output[outputLength++] = (unsigned char) (0x80 | (codepoint & 0x3f));");
+            writer.updateIndentation(-1);
+        }
+        if (this.cellSize == 32) {
+            writer.writeLine("}");
+            writer.writeLine("else if (codepoint <= 0x10ffff) {");
+            writer.updateIndentation(1);
+            writer.writeLine("output[outputLength++] = (unsigned char) (0xf0 | (codepoint >> 18));");
+            writer.writeLine("output[outputLength++] = (unsigned char) (0x80 | ((codepoint >> 12) & 0x3f));");
+            writer.writeLine("output[outputLength++] = (unsigned char) (0x80 | ((codepoint >> 6) & 0x3f));");
+            writer.writeLine("output[outputLength++] = (unsigned char) (0x80 | (codepoint & 0x3f));");
+            writer.updateIndentation(-1);
+            writer.writeLine("}");
+
+            // same as the interpreter for values which are not code points
+            writer.writeLine("else {");
+            writer.updateIndentation(1);
+            writer.writeLine("memcpy(output + outputLength, \"N/A\", 3);");
+            writer.writeLine("outputLength += 3;");
+            writer.updateIndentation(-1);
+        }
         writer.writeLine("}");
-        writer.writeLine("return -1;");
         writer.updateIndentation(-1);
         writer.writeLine("}");
         writer.writeLine();
 
-        writer.writeLine("int updatePointer(int pointer, int sum) {");
+        // flush first so that prompts are shown before waiting for input
+        writer.writeLine("static inline " + datatype + " readSymbol(void) {");
         writer.updateIndentation(1);
-        writer.writeLine("pointer += sum;");
+        writer.writeLine("flushOutput();");
+        writer.writeLine("int ch = getchar();");
+        writer.writeLine("return ch == EOF ? 0 : (" + datatype + ") ch;");
+        writer.updateIndentation(-1);
+        writer.writeLine("}");
+        writer.writeLine();
+
         if (this.wrapMemory) {
-            writer.writeLine("if (pointer < 0) pointer += MEMORY_SIZE;");
-            writer.writeLine("else if (pointer >= MEMORY_SIZE) pointer -= MEMORY_SIZE;");
+            writer.writeLine("static inline int wrap(int index) {");
+            writer.updateIndentation(1);
+            writer.writeLine("if (index < 0) return index + MEMORY_SIZE;");
+            writer.writeLine("if (index >= MEMORY_SIZE) return index - MEMORY_SIZE;");
+            writer.writeLine("return index;");
+            writer.updateIndentation(-1);
+            writer.writeLine("}");
         }
         else {
-            writer.writeLine("if (pointer < 0 || pointer >= MEMORY_SIZE) {");
+            writer.writeLine("static void outOfBounds(int index) {");
             writer.updateIndentation(1);
-            writer.writeLine("printf(\"\\nError: Memory index out of bounds %d\\n\", pointer);");
+            writer.writeLine("flushOutput();");
+            writer.writeLine("fprintf(stderr, \"\\nError: Memory index out of bounds %d\\n\", index);");
             writer.writeLine("exit(1);");
             writer.updateIndentation(-1);
             writer.writeLine("}");
-        }
-        writer.writeLine("return pointer;");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine();
+            writer.writeLine();
 
-        writer.writeLine("char *getSymbol(" + datatype + " codepoint) {");
-        writer.updateIndentation(1);
-        writer.writeLine("char *out = calloc(5, sizeof(char));");
-        writer.writeLine();
-        writer.writeLine("if (codepoint <= 0x7f) {");
-        writer.updateIndentation(1);
-        writer.writeLine("out[0] = (char) codepoint;");
-        writer.writeLine("out[1] = '\\0';");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine("else if (codepoint <= 0x7ff) {");
-        writer.updateIndentation(1);
-        writer.writeLine("out[0] = (char) (0xc0 | ((codepoint >> 6) & 0x1f));");
-        writer.writeLine("out[1] = (char) (0x80 | (codepoint & 0x3f));");
-        writer.writeLine("out[2] = '\\0';");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine("else if (codepoint <= 0xffff) {");
-        writer.updateIndentation(1);
-        writer.writeLine("out[0] = (char) (0xe0 | ((codepoint >> 12) & 0x0f));");
-        writer.writeLine("out[1] = (char) (0x80 | ((codepoint >> 6) & 0x3f));");
-        writer.writeLine("out[2] = (char) (0x80 | (codepoint & 0x3f));");
-        writer.writeLine("out[3] = '\\0';");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine("else {");
-        writer.updateIndentation(1);
-        writer.writeLine("out[0] = (char) (0xf0 | ((codepoint >> 18) & 0x07));");
-        writer.writeLine("out[1] = (char) (0x80 | ((codepoint >> 12) & 0x3f));");
-        writer.writeLine("out[2] = (char) (0x80 | ((codepoint >> 6) & 0x3f));");
-        writer.writeLine("out[3] = (char) (0x80 | (codepoint & 0x3f));");
-        writer.writeLine("out[4] = '\\0';");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine();
-        writer.writeLine("return out;");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
+            writer.writeLine("static inline int check(int index) {");
+            writer.updateIndentation(1);
+            writer.writeLine("if (index < 0 || index >= MEMORY_SIZE) outOfBounds(index);");
+            writer.writeLine("return index;");
+            writer.updateIndentation(-1);
+            writer.writeLine("}");
+        }
         writer.writeLine();
 
         writer.writeLine("int main(int argc, char *argv[]) {");
@@ -128,71 +147,123 @@ public class CTranslator extends Translator {
             writer.writeLine();
         }
 
-        writer.writeLine(datatype + " memory[MEMORY_SIZE];");
-        writer.writeLine("memset(memory, 0, MEMORY_SIZE);");
+        writer.writeLine("memory = calloc(MEMORY_SIZE, sizeof(" + datatype + "));");
+        writer.writeLine("if (memory == NULL) {");
+        writer.updateIndentation(1);
+        writer.writeLine("fprintf(stderr, \"Error: Failed to allocate memory\\n\");");
+        writer.writeLine("return 1;");
+        writer.updateIndentation(-1);
+        writer.writeLine("}");
         writer.writeLine();
         writer.writeLine("int pointer = 0;");
-        writer.writeLine("char ch;");
         writer.writeLine();
 
-        for (int i = 0; i < processed.length && !this.kill.get(); i++) {
-            if (i % 50 == 0) {
-                double progress = i / (double) processed.length;
-                Utils.runAndWait(() -> notification.setProgress(progress));
-            }
+        for (int i = 0; i < instructions.length && !this.kill.get(); i++) {
+            this.setProgress(i);
 
-            char ch = processed[i];
+            long instruction = instructions[i];
+            int opcode = Instruction.opcode(instruction);
 
             // handle pointer movement (> and <)
-            if (ch == ADDRESS) {
-                int sum = jumps[i];
-                writer.writeLine("pointer = updatePointer(pointer, " + sum + ");");
+            if (opcode == Instruction.ADDRESS) {
+                int sum = Instruction.operand(instruction);
+                writer.writeLine("pointer += " + sum + ";");
+                this.writeBoundary(writer, sum > 0);
             }
             // handle value update (+ and -)
-            else if (ch == DATA) {
-                int sum = jumps[i];
-                writer.writeLine("memory[pointer] += " + sum + ";");
+            else if (opcode == Instruction.DATA) {
+                int sum = Instruction.operand(instruction);
+                writer.writeLine(this.cell(instruction) + " += " + sum + ";");
             }
             // handle output (.)
-            else if (ch == '.') {
-                writer.writeLine("printf(\"%s\", getSymbol(memory[pointer]));");
-                writer.writeLine("fflush(stdout);");
+            else if (opcode == Instruction.OUTPUT) {
+                writer.writeLine("writeSymbol(" + this.cell(instruction) + ");");
             }
             // handle input (,)
-            else if (ch == ',') {
-                writer.writeLine("scanf(\"%c\", &ch);");
-                writer.writeLine("memory[pointer] = ch;");
+            else if (opcode == Instruction.INPUT) {
+                writer.writeLine(this.cell(instruction) + " = readSymbol();");
             }
-            // handle [-]
-            else if (ch == SET_ZERO) {
-                writer.writeLine("memory[pointer] = 0;");
+            // handle [-] and constant stores
+            else if (opcode == Instruction.SET) {
+                int value = Instruction.operand(instruction);
+                writer.writeLine(this.cell(instruction) + " = " + Integer.toUnsignedString(value) + ";");
             }
-            // handle [<]
-            else if (ch == SCAN_ZERO_LEFT) {
-                writer.writeLine("pointer = findZeroLeft(memory, pointer);");
+            // handle multiplication loops such as [->++<]
+            else if (opcode == Instruction.MULTIPLY) {
+                int factor = Instruction.operand(instruction);
+                // multiplied as unsigned int, since narrow cells are promoted to a signed int which may overflow
+                writer.writeLine("if (memory[pointer]) " + this.cell(instruction) + " += (unsigned int) memory[pointer] * " + Integer.toUnsignedString(factor) + "u;");
             }
-            // handle [>]
-            else if (ch == SCAN_ZERO_RIGHT) {
-                writer.writeLine("pointer = findZeroRight(memory, pointer);");
+            // handle [<], [<<] and so on
+            else if (opcode == Instruction.SCAN_ZERO_LEFT) {
+                writer.writeLine("while (memory[pointer]) {");
+                writer.updateIndentation(1);
+                writer.writeLine("pointer -= " + Instruction.operand(instruction) + ";");
+                this.writeBoundary(writer, false);
+                writer.updateIndentation(-1);
+                writer.writeLine("}");
+            }
+            // handle [>], [>>] and so on
+            else if (opcode == Instruction.SCAN_ZERO_RIGHT) {
+                int stride = Instruction.operand(instruction);
+
+                // bytes are searched by the C library, which reads many at a time
+                if (this.cellSize == 8 && stride == 1 && !this.wrapMemory) {
+                    writer.writeLine("if (memory[pointer]) {");
+                    writer.updateIndentation(1);
+                    writer.writeLine("unsigned char *zero = memchr(memory + pointer, 0, MEMORY_SIZE - pointer);");
+                    writer.writeLine("if (zero == NULL) outOfBounds(MEMORY_SIZE);");
+                    writer.writeLine("pointer = (int) (zero - memory);");
+                    writer.updateIndentation(-1);
+                    writer.writeLine("}");
+                }
+                else {
+                    writer.writeLine("while (memory[pointer]) {");
+                    writer.updateIndentation(1);
+                    writer.writeLine("pointer += " + stride + ";");
+                    this.writeBoundary(writer, true);
+                    writer.updateIndentation(-1);
+                    writer.writeLine("}");
+                }
             }
             // handle loop opening ([)
-            else if (ch == '[') {
-                writer.writeLine("while (memory[pointer] != 0) {");
+            else if (opcode == Instruction.LOOP_START) {
+                writer.writeLine("while (memory[pointer]) {");
                 writer.updateIndentation(1);
             }
             // handle loop closing (])
-            else if (ch == ']') {
+            else if (opcode == Instruction.LOOP_END) {
                 writer.updateIndentation(-1);
                 writer.writeLine("}");
             }
         }
 
         writer.writeLine();
+        writer.writeLine("flushOutput();");
+        writer.writeLine("free(memory);");
         writer.writeLine("return 0;");
         writer.updateIndentation(-1);
         writer.writeLine("}");
     }
 
+    /**
+     * Write the wrap or bounds check of the pointer after it moved in one direction.
+     */
+    private void writeBoundary(TranslationWriter writer, boolean right) throws IOException {
+        if (this.wrapMemory) {
+            writer.writeLine(right ? "if (pointer >= MEMORY_SIZE) pointer -= MEMORY_SIZE;" : "if (pointer < 0) pointer += MEMORY_SIZE;");
+        }
+        else {
+            writer.writeLine(right ? "if (pointer >= MEMORY_SIZE) outOfBounds(pointer);" : "if (pointer < 0) outOfBounds(pointer);");
+        }
+    }
+
+    private String cell(long instruction) {
+        int offset = Instruction.offset(instruction);
+        if (offset == 0) return "memory[pointer]";
+        return "memory[" + (this.wrapMemory ? "wrap" : "check") + "(pointer + " + offset + ")]";
+    }
+
     @Override
     public String getLanguage() {
         return "C";
@@ -1,92 +1,172 @@
 package in.pratanumandal.brainfuck.engine.processor.translator;
 
 import com.sun.jna.Platform;
-import in.pratanumandal.brainfuck.common.Configuration;
-import in.pratanumandal.brainfuck.common.Utils;
-import in.pratanumandal.brainfuck.gui.component.NotificationManager;
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
 import in.pratanumandal.brainfuck.gui.component.TabData;
 import javafx.stage.FileChooser;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 
 public class JavaTranslator extends Translator {
 
+    // keep generated methods well below the 64 KB limit and the huge method limit of the JIT
+    private static final int METHOD_LIMIT = 3000;
+
+    private static final int LOOP_WEIGHT = 12;
+    private static final int CALL_WEIGHT = 12;
+
+    // name of the class when translating to run within the application instead of exporting to a file
+    private String className;
+
+    // check for interruption at loop ends so that a run within the application can be stopped
+    private boolean interruptible;
+
+    private String datatype;
+
+    // estimated bytecode size of the instructions before each index
+    private int[] weights;
+
+    // methods split from the program, written after the method calling them
+    private final Queue<MethodBody> pendingMethods = new ArrayDeque<>();
+    private int methodCount;
+
+    private int translated;
+
     public JavaTranslator(TabData tabData) {
         super(tabData);
     }
 
+    /**
+     * Translate instructions to the source of a class which can be run within the application.
+     * Its static run method executes the program on a reader and an output stream, ends with an
+     * InterruptedIOException when the running thread is interrupted and with an
+     * IndexOutOfBoundsException naming the index when the program leaves the memory.
+     */
+    public String translate(long[] instructions, String className) throws IOException {
+        this.instructions = instructions;
+        this.className = className;
+        this.interruptible = true;
+
+        this.kill.set(false);
+
+        StringWriter source = new StringWriter();
+        try (TranslationWriter writer = new TranslationWriter(new BufferedWriter(source))) {
+            this.doTranslate(writer);
+        }
+        return source.toString();
+    }
+
     @Override
-    public void doTranslate(NotificationManager.Notification notification, TranslationWriter writer) throws IOException {
-        String datatype = (this.cellSize == 8) ? "byte" : (this.cellSize == 16) ? "short" : "int";
-        String wrapperDatatype = (this.cellSize == 8) ? "Byte" : (this.cellSize == 16) ? "Short" : "Int";
+    public void doTranslate(TranslationWriter writer) throws IOException {
+        this.datatype = (this.cellSize == 8) ? "byte" : (this.cellSize == 16) ? "short" : "int";
+        this.translated = 0;
+        this.methodCount = 0;
+        this.pendingMethods.clear();
+
+        this.weights = new int[instructions.length + 1];
+        for (int i = 0; i < instructions.length; i++) {
+            this.weights[i + 1] = this.weights[i] + this.estimateWeight(instructions[i]);
+        }
+
+        String className = (this.className != null) ? this.className : this.getFileNameWithoutExtension();
 
         writer.writeLine("import java.io.*;");
+        writer.writeLine("import java.nio.charset.StandardCharsets;");
         writer.writeLine();
-        writer.writeLine("public class " + this.getFileNameWithoutExtension() + " {");
+        writer.writeLine("public class " + className + " {");
         writer.writeLine();
         writer.updateIndentation(1);
 
-        writer.writeLine("public static final int MEMORY_SIZE = " + Configuration.getMemorySize() + ";");
+        writer.writeLine("public static final int MEMORY_SIZE = " + this.memorySize + ";");
+        writer.writeLine();
+        writer.writeLine("private static final byte[] NOT_A_CODE_POINT = \"N/A\".getBytes(StandardCharsets.US_ASCII);");
         writer.writeLine();
 
-        writer.writeLine("public static int findZeroLeft(" + datatype + "[] memory, int position) {");
+        if (this.wrapMemory) {
+            writer.writeLine("private static int wrap(int index) {");
+            writer.updateIndentation(1);
+            writer.writeLine("if (index < 0) return index + MEMORY_SIZE;");
+            writer.writeLine("if (index >= MEMORY_SIZE) return index - MEMORY_SIZE;");
+            writer.writeLine("return index;");
+            writer.updateIndentation(-1);
+            writer.writeLine("}");
+            writer.writeLine();
+        }
+        else {
+            writer.writeLine("private static void outOfBounds(int index) {");
+            writer.updateIndentation(1);
+            writer.writeLine("throw new IndexOutOfBoundsException(\"Memory index out of bounds \" + index);");
+            writer.updateIndentation(-1);
+            writer.writeLine("}");
+            writer.writeLine();
+
+            writer.writeLine("private static int check(int index) {");
+            writer.updateIndentation(1);
+            writer.writeLine("if (index < 0 || index >= MEMORY_SIZE) outOfBounds(index);");
+            writer.writeLine("return index;");
+            writer.updateIndentation(-1);
+            writer.writeLine("}");
+            writer.writeLine();
+        }
+
+        if (this.interruptible) {
+            writer.writeLine("private static void checkInterrupted() throws InterruptedIOException {");
+            writer.updateIndentation(1);
+            writer.writeLine("if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException();");
+            writer.updateIndentation(-1);
+            writer.writeLine("}");
+            writer.writeLine();
+        }
+
+        writer.writeLine("private static void write(OutputStream out, long codePoint) throws IOException {");
         writer.updateIndentation(1);
-        writer.writeLine("for (int i = position; i >= 0; i--) {");
+        writer.writeLine("if (codePoint < 0x80) {");
         writer.updateIndentation(1);
-        writer.writeLine("if (memory[i] == 0) return i;");
+        writer.writeLine("out.write((int) codePoint);");
         writer.updateIndentation(-1);
         writer.writeLine("}");
-        writer.writeLine("for (int i = MEMORY_SIZE - 1; i > position; i--) {");
+        writer.writeLine("else if (codePoint < 0x800) {");
         writer.updateIndentation(1);
-        writer.writeLine("if (memory[i] == 0) return i;");
+        writer.writeLine("out.write((int) (0xc0 | (codePoint >> 6)));");
+        writer.writeLine("out.write((int) (0x80 | (codePoint & 0x3f)));");
         writer.updateIndentation(-1);
         writer.writeLine("}");
-        writer.writeLine("return -1;");
+        writer.writeLine("else if (codePoint < 0x10000) {");
+        writer.updateIndentation(1);
+        writer.writeLine("out.write((int) (0xe0 | (codePoint >> 12)));");
+        writer.writeLine("out.write((int) (0x80 | ((codePoint >> 6) & 0x3f)));");
+        writer.writeLine("out.write((int) (0x80 | (codePoint & 0x3f)));");
         writer.updateIndentation(-1);
         writer.writeLine("}");
-        writer.writeLine();
-
-        writer.writeLine("public static int findZeroRight(" + datatype + "[] memory, int position) {");
-        writer.updateIndentation(1);
-        writer.writeLine("for (int i = position; i < MEMORY_SIZE; i++) {");
+        writer.writeLine("else if (codePoint <= Character.MAX_CODE_POINT) {");
         writer.updateIndentation(1);
-        writer.writeLine("if (memory[i] == 0) return i;");
+        writer.writeLine("out.write((int) (0xf0 | (codePoint >> 18)));");
+        writer.writeLine("out.write((int) (0x80 | ((codePoint >> 12) & 0x3f)));");
+        writer.writeLine("out.write((int) (0x80 | ((codePoint >> 6) & 0x3f)));");
+        writer.writeLine("out.write((int) (0x80 | (codePoint & 0x3f)));");
         writer.updateIndentation(-1);
         writer.writeLine("}");
-        writer.writeLine("for (int i = 0; i < position; i++) {");
+        writer.writeLine("else {");
         writer.updateIndentation(1);
-        writer.writeLine("if (memory[i] == 0) return i;");
+        writer.writeLine("out.write(NOT_A_CODE_POINT);");
         writer.updateIndentation(-1);
         writer.writeLine("}");
-        writer.writeLine("return -1;");
         writer.updateIndentation(-1);
         writer.writeLine("}");
         writer.writeLine();
 
-        writer.writeLine("public static int updatePointer(int pointer, int sum) {");
+        writer.writeLine("private static int read(Reader in, OutputStream out) throws IOException {");
         writer.updateIndentation(1);
-        writer.writeLine("pointer += sum;");
-        if (this.wrapMemory) {
-            writer.writeLine("if (pointer < 0) pointer += MEMORY_SIZE;");
-            writer.writeLine("else if (pointer >= MEMORY_SIZE) pointer -= MEMORY_SIZE;");
-        }
-        else {
-            writer.writeLine("if (pointer < 0 || pointer >= MEMORY_SIZE) {");
-            writer.updateIndentation(1);
-            writer.writeLine("System.out.printf(\"\\nError: Memory index out of bounds %d\\n\", pointer);");
-            writer.writeLine("System.exit(1);");
-            writer.updateIndentation(-1);
-            writer.writeLine("}");
-        }
-        writer.writeLine("return pointer;");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine();
-
-        writer.writeLine("public static String getSymbol(" + wrapperDatatype + " value) {");
-        writer.updateIndentation(1);
-        writer.writeLine("Long codePoint = " + wrapperDatatype + ".toUnsignedLong(value);");
-        writer.writeLine("return String.valueOf(Character.toChars(codePoint.intValue()));");
+        writer.writeLine("// make prompts visible before blocking for input");
+        writer.writeLine("out.flush();");
+        writer.writeLine("int ch = in.read();");
+        writer.writeLine("return ch < 0 ? 0 : ch;");
         writer.updateIndentation(-1);
         writer.writeLine("}");
         writer.writeLine();
@@ -103,80 +183,255 @@ public class JavaTranslator extends Translator {
             writer.updateIndentation(-1);
             writer.writeLine("} catch (InterruptedException e) {}");
             writer.writeLine();
-            writer.writeLine("PrintStream out = new PrintStream(System.out, true, \"UTF-8\");");
-            writer.writeLine();
-        }
-        else {
-            writer.writeLine("PrintStream out = System.out;");
-            writer.writeLine();
         }
 
+        writer.writeLine("Reader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));");
+        writer.writeLine("OutputStream out = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16);");
+        writer.writeLine();
+        writer.writeLine("try {");
+        writer.updateIndentation(1);
+        writer.writeLine("run(in, out);");
+        writer.writeLine("out.flush();");
+        writer.updateIndentation(-1);
+        writer.writeLine("} catch (IndexOutOfBoundsException e) {");
+        writer.updateIndentation(1);
+        writer.writeLine("out.flush();");
+        writer.writeLine("System.err.println(\"\\nError: \" + e.getMessage());");
+        writer.writeLine("System.exit(1);");
+        writer.updateIndentation(-1);
+        writer.writeLine("}");
+        writer.updateIndentation(-1);
+        writer.writeLine("}");
+        writer.writeLine();
+
+        writer.writeLine("public static void run(Reader in, OutputStream out) throws IOException {");
+        writer.updateIndentation(1);
         writer.writeLine(datatype + "[] memory = new " + datatype + "[MEMORY_SIZE];");
         writer.writeLine("int pointer = 0;");
         writer.writeLine();
-        writer.writeLine("try (BufferedReader br = new BufferedReader(new InputStreamReader(System.in))) {");
-        writer.updateIndentation(1);
+        this.writeBody(writer, 0, instructions.length);
+        writer.updateIndentation(-1);
+        writer.writeLine("}");
+
+        while (!this.pendingMethods.isEmpty() && !this.kill.get()) {
+            writer.writeLine();
+            this.pendingMethods.remove().write(writer);
+        }
+
+        writer.writeLine();
+        writer.updateIndentation(-1);
+        writer.writeLine("}");
+    }
+
+    private int estimateWeight(long instruction) {
+        int weight;
+        switch (Instruction.opcode(instruction)) {
+            case Instruction.ADDRESS: weight = 16; break;
+            case Instruction.DATA: weight = 10; break;
+            case Instruction.OUTPUT: weight = 12; break;
+            case Instruction.INPUT: weight = 12; break;
+            case Instruction.SET: weight = 8; break;
+            case Instruction.MULTIPLY: weight = 24; break;
+            case Instruction.SCAN_ZERO_LEFT: weight = 24; break;
+            case Instruction.SCAN_ZERO_RIGHT: weight = 24; break;
+            case Instruction.LOOP_START: weight = LOOP_WEIGHT; break;
+            case Instruction.LOOP_END: weight = this.interruptible ? 4 : 0; break;
+            default: weight = 4;
+        }
+
+        // offset cells are computed and wrapped around or checked
+        if (Instruction.offset(instruction) != 0) weight += 8;
+
+        return weight;
+    }
+
+    private int next(int i) {
+        if (Instruction.opcode(instructions[i]) == Instruction.LOOP_START) {
+            return Instruction.operand(instructions[i]) + 1;
+        }
+        return i + 1;
+    }
+
+    private int weight(int from, int to) {
+        return this.weights[to] - this.weights[from];
+    }
+
+    /**
+     * Queue a new static method with the common signature and return its name.
+     */
+    private String createMethod(MethodBody body) {
+        String name = "block" + this.methodCount++;
+
+        this.pendingMethods.add(writer -> {
+            writer.writeLine("private static int " + name + "(" + datatype + "[] memory, int pointer, Reader in, OutputStream out) throws IOException {");
+            writer.updateIndentation(1);
+            body.write(writer);
+            writer.writeLine("return pointer;");
+            writer.updateIndentation(-1);
+            writer.writeLine("}");
+        });
+
+        return name;
+    }
+
+    /**
+     * Write the instructions in range, splitting parts into separate methods if too large.
+     */
+    private void writeBody(TranslationWriter writer, int from, int to) throws IOException {
+        if (this.weight(from, to) <= METHOD_LIMIT) {
+            this.writeInline(writer, from, to);
+            return;
+        }
+
+        // partition the top level items into groups of limited size
+        List<String> methods = new ArrayList<>();
+        int groupStart = from;
+
+        for (int i = from; i < to; ) {
+            int next = this.next(i);
+
+            if (this.weight(i, next) > METHOD_LIMIT) {
+                if (groupStart < i) methods.add(this.createInlineMethod(groupStart, i));
+
+                int loopStart = i;
+                methods.add(this.createMethod(w -> this.writeLoop(w, loopStart, next - 1)));
+
+                groupStart = next;
+            }
+            else if (this.weight(groupStart, next) > METHOD_LIMIT) {
+                methods.add(this.createInlineMethod(groupStart, i));
+                groupStart = i;
+            }
+
+            i = next;
+        }
 
-        for (int i = 0; i < processed.length && !this.kill.get(); i++) {
-            if (i % 50 == 0) {
-                double progress = i / (double) processed.length;
-                Utils.runAndWait(() -> notification.setProgress(progress));
+        if (groupStart < to) methods.add(this.createInlineMethod(groupStart, to));
+
+        this.writeCalls(writer, methods);
+    }
+
+    private String createInlineMethod(int from, int to) {
+        return this.createMethod(writer -> this.writeInline(writer, from, to));
+    }
+
+    private void writeCalls(TranslationWriter writer, List<String> methods) throws IOException {
+        if (methods.size() * CALL_WEIGHT <= METHOD_LIMIT) {
+            for (String method : methods) {
+                writer.writeLine("pointer = " + method + "(memory, pointer, in, out);");
             }
+            return;
+        }
 
-            char ch = processed[i];
+        // group the calls hierarchically
+        int groupSize = METHOD_LIMIT / CALL_WEIGHT;
+        List<String> groups = new ArrayList<>();
+        for (int i = 0; i < methods.size(); i += groupSize) {
+            List<String> group = methods.subList(i, Math.min(i + groupSize, methods.size()));
+            groups.add(this.createMethod(w -> this.writeCalls(w, group)));
+        }
+
+        this.writeCalls(writer, groups);
+    }
+
+    private void writeLoop(TranslationWriter writer, int start, int end) throws IOException {
+        writer.writeLine("while (memory[pointer] != 0) {");
+        writer.updateIndentation(1);
+        this.writeBody(writer, start + 1, end);
+        if (this.interruptible) writer.writeLine("checkInterrupted();");
+        writer.updateIndentation(-1);
+        writer.writeLine("}");
+    }
+
+    private void writeInline(TranslationWriter writer, int from, int to) throws IOException {
+        for (int i = from; i < to && !this.kill.get(); i++) {
+            this.setProgress(++this.translated);
+
+            long instruction = instructions[i];
+            int opcode = Instruction.opcode(instruction);
 
             // handle pointer movement (> and <)
-            if (ch == ADDRESS) {
-                int sum = jumps[i];
-                writer.writeLine("pointer = updatePointer(pointer, " + sum + ");");
+            if (opcode == Instruction.ADDRESS) {
+                int sum = Instruction.operand(instruction);
+                writer.writeLine("pointer += " + sum + ";");
+                this.writeBoundary(writer, sum > 0);
             }
             // handle value update (+ and -)
-            else if (ch == DATA) {
-                int sum = jumps[i];
-                writer.writeLine("memory[pointer] += " + sum + ";");
+            else if (opcode == Instruction.DATA) {
+                int sum = Instruction.operand(instruction);
+                writer.writeLine(this.cell(instruction) + " += " + sum + ";");
             }
             // handle output (.)
-            else if (ch == '.') {
-                writer.writeLine("out.print(getSymbol(memory[pointer]));");
+            else if (opcode == Instruction.OUTPUT) {
+                writer.writeLine("write(out, " + this.codePoint(this.cell(instruction)) + ");");
             }
             // handle input (,)
-            else if (ch == ',') {
-                writer.writeLine("memory[pointer] = (" + datatype + ") br.read();");
+            else if (opcode == Instruction.INPUT) {
+                writer.writeLine(this.cell(instruction) + " = (" + datatype + ") read(in, out);");
             }
-            // handle [-]
-            else if (ch == SET_ZERO) {
-                writer.writeLine("memory[pointer] = 0;");
+            // handle [-] and constant stores
+            else if (opcode == Instruction.SET) {
+                int value = Instruction.operand(instruction);
+                writer.writeLine(this.cell(instruction) + " = (" + datatype + ") " + value + ";");
             }
-            // handle [<]
-            else if (ch == SCAN_ZERO_LEFT) {
-                writer.writeLine("pointer = findZeroLeft(memory, pointer);");
+            // handle multiplication loops such as [->++<]
+            else if (opcode == Instruction.MULTIPLY) {
+                int factor = Instruction.operand(instruction);
+                writer.writeLine("if (memory[pointer] != 0) " + this.cell(instruction) + " += memory[pointer] * " + factor + ";");
             }
-            // handle [>]
-            else if (ch == SCAN_ZERO_RIGHT) {
-                writer.writeLine("pointer = findZeroRight(memory, pointer);");
+            // handle [<], [<<] and so on
+            else if (opcode == Instruction.SCAN_ZERO_LEFT) {
+                this.writeScan(writer, -Instruction.operand(instruction));
             }
-            // handle loop opening ([)
-            else if (ch == '[') {
-                writer.writeLine("while (memory[pointer] != 0) {");
-                writer.updateIndentation(1);
+            // handle [>], [>>] and so on
+            else if (opcode == Instruction.SCAN_ZERO_RIGHT) {
+                this.writeScan(writer, Instruction.operand(instruction));
             }
-            // handle loop closing (])
-            else if (ch == ']') {
-                writer.updateIndentation(-1);
-                writer.writeLine("}");
+            // handle loops ([ and ])
+            else if (opcode == Instruction.LOOP_START) {
+                this.writeLoop(writer, i, Instruction.operand(instruction));
+                i = Instruction.operand(instruction);
             }
         }
+    }
 
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.updateIndentation(-1);
-        writer.writeLine("}");
-        writer.writeLine();
+    private void writeScan(TranslationWriter writer, int stride) throws IOException {
+        writer.writeLine("while (memory[pointer] != 0) {");
+        writer.updateIndentation(1);
+        writer.writeLine(stride > 0 ? "pointer += " + stride + ";" : "pointer -= " + -stride + ";");
+        this.writeBoundary(writer, stride > 0);
+
+        // a scan around the memory may never find a zero
+        if (this.wrapMemory && this.interruptible) writer.writeLine("checkInterrupted();");
 
         writer.updateIndentation(-1);
         writer.writeLine("}");
     }
 
+    /**
+     * Write the wrap or bounds check of the pointer after it moved in one direction.
+     */
+    private void writeBoundary(TranslationWriter writer, boolean right) throws IOException {
+        if (this.wrapMemory) {
+            writer.writeLine(right ? "if (pointer >= MEMORY_SIZE) pointer -= MEMORY_SIZE;" : "if (pointer < 0) pointer += MEMORY_SIZE;");
+        }
+        else {
+            writer.writeLine(right ? "if (pointer >= MEMORY_SIZE) outOfBounds(pointer);" : "if (pointer < 0) outOfBounds(pointer);");
+        }
+    }
+
+    private String cell(long instruction) {
+        int offset = Instruction.offset(instruction);
+        if (offset == 0) return "memory[pointer]";
+
+        String index = "pointer " + (offset > 0 ? "+ " + offset : "- " + -offset);
+        return "memory[" + (this.wrapMemory ? "wrap" : "check") + "(" + index + ")]";
+    }
+
+    private String codePoint(String cell) {
+        return (this.cellSize == 8) ? cell + " & 0xFF" : (this.cellSize == 16) ? cell + " & 0xFFFF" : cell + " & 0xFFFFFFFFL";
+    }
+
     @Override
     public String getLanguage() {
         return "Java";
@@ -192,4 +447,8 @@ public class JavaTranslator extends Translator {
         return new FileChooser.ExtensionFilter("Java files (*.java)", "*.java");
     }
 
+    private interface MethodBody {
+        void write(TranslationWriter writer) throws IOException;
+    }
+
 }
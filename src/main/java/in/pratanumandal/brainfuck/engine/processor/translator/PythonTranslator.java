@@ -1,158 +1,316 @@
 package in.pratanumandal.brainfuck.engine.processor.translator;
 
-import in.pratanumandal.brainfuck.common.Configuration;
-import in.pratanumandal.brainfuck.common.Utils;
-import in.pratanumandal.brainfuck.gui.component.NotificationManager;
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
 import in.pratanumandal.brainfuck.gui.component.TabData;
 import javafx.stage.FileChooser;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 public class PythonTranslator extends Translator {
 
+    // CPython rejects more than 20 statically nested loops in one function
+    private static final int MAX_NESTING = 16;
+
+    private String mask;
+
+    // functions split from the program, written after the function calling them
+    private Queue<Integer> pendingFunctions;
+
+    // most negative offset checked since the pointer last moved
+    private int checkedOffset;
+
+    private int translated;
+
     public PythonTranslator(TabData tabData) {
         super(tabData);
     }
 
     @Override
-    public void doTranslate(NotificationManager.Notification notification, TranslationWriter writer) throws IOException {
-        String datatype = (this.cellSize == 8) ? "ubyte" : (this.cellSize == 16) ? "ushort" : "uintc";
+    public void doTranslate(TranslationWriter writer) throws IOException {
+        this.mask = (this.cellSize == 8) ? "0xFF" : (this.cellSize == 16) ? "0xFFFF" : "0xFFFFFFFF";
+        this.pendingFunctions = new ArrayDeque<>();
+        this.translated = 0;
 
         writer.writeLine("import sys");
-        writer.writeLine("import numpy as np");
-        writer.writeLine();
-        writer.writeLine("np.seterr(over='ignore')");
+        if (this.cellSize != 8) writer.writeLine("from array import array");
         writer.writeLine();
-        writer.writeLine("MEMORY_SIZE = " + Configuration.getMemorySize());
+        writer.writeLine("MEMORY_SIZE = " + this.memorySize);
+        writer.writeLine("OUTPUT_SIZE = 1 << 16");
         writer.writeLine();
 
         writer.writeLine();
-        writer.writeLine("def findZeroLeft(memory, position):");
-        writer.updateIndentation(1);
-        writer.writeLine("for i in range(position, 0, -1):");
+        writer.writeLine("def flush(output):");
         writer.updateIndentation(1);
-        writer.writeLine("if memory[i] == 0:");
-        writer.updateIndentation(1);
-        writer.writeLine("return i");
-        writer.updateIndentation(-2);
-        writer.writeLine("for i in range(MEMORY_SIZE - 1, position, -1):");
-        writer.updateIndentation(1);
-        writer.writeLine("if memory[i] == 0:");
-        writer.updateIndentation(1);
-        writer.writeLine("return i");
-        writer.updateIndentation(-2);
-        writer.writeLine("return -1");
+        if (this.cellSize == 32) {
+            writer.writeLine("text = ''.join([chr(codePoint) if codePoint <= 0x10FFFF else 'N/A' for codePoint in output])");
+        }
+        else {
+            writer.writeLine("text = ''.join(map(chr, output))");
+        }
+        writer.writeLine("sys.stdout.buffer.write(text.encode('utf-8', 'replace'))");
+        writer.writeLine("sys.stdout.buffer.flush()");
+        writer.writeLine("output.clear()");
         writer.updateIndentation(-1);
         writer.writeLine();
 
         writer.writeLine();
-        writer.writeLine("def findZeroRight(memory, position):");
+        writer.writeLine("def read(output):");
         writer.updateIndentation(1);
-        writer.writeLine("for i in range(position, MEMORY_SIZE, 1):");
-        writer.updateIndentation(1);
-        writer.writeLine("if memory[i] == 0:");
-        writer.updateIndentation(1);
-        writer.writeLine("return i");
-        writer.updateIndentation(-2);
-        writer.writeLine("for i in range(0, position, 1):");
-        writer.updateIndentation(1);
-        writer.writeLine("if memory[i] == 0:");
-        writer.updateIndentation(1);
-        writer.writeLine("return i");
-        writer.updateIndentation(-2);
-        writer.writeLine("return -1");
+        writer.writeLine("# make prompts visible before blocking for input");
+        writer.writeLine("flush(output)");
+        writer.writeLine("symbol = sys.stdin.read(1)");
+        writer.writeLine("return ord(symbol) & " + this.mask + " if symbol else 0");
         writer.updateIndentation(-1);
         writer.writeLine();
 
-        writer.writeLine();
-        writer.writeLine("def updatePointer(pointer, sum):");
-        writer.updateIndentation(1);
-        writer.writeLine("pointer = pointer + sum");
-        if (this.wrapMemory) {
-            writer.writeLine("if pointer < 0:");
+        if (!this.wrapMemory) {
+            writer.writeLine();
+            writer.writeLine("def outOfBounds(output, index):");
             writer.updateIndentation(1);
-            writer.writeLine("pointer += MEMORY_SIZE");
+            writer.writeLine("flush(output)");
+            writer.writeLine("sys.stderr.write(f\"\\nError: Memory index out of bounds {index}\\n\")");
+            writer.writeLine("sys.exit(1)");
             writer.updateIndentation(-1);
+            writer.writeLine();
+        }
 
-            writer.writeLine("elif pointer >= MEMORY_SIZE:");
-            writer.updateIndentation(1);
-            writer.writeLine("pointer -= MEMORY_SIZE");
-            writer.updateIndentation(-1);
+        writer.writeLine();
+        writer.writeLine("def main():");
+        writer.updateIndentation(1);
+        writer.writeLine("sys.stdin.reconfigure(encoding='utf-8')");
+        writer.writeLine();
+        if (this.cellSize == 8) {
+            writer.writeLine("memory = bytearray(MEMORY_SIZE)");
         }
         else {
-            writer.writeLine("if pointer < 0 or pointer >= MEMORY_SIZE:");
+            writer.writeLine("memory = array('" + (this.cellSize == 16 ? "H" : "I") + "', [0]) * MEMORY_SIZE");
+        }
+        writer.writeLine("pointer = 0");
+        writer.writeLine("output = []");
+        writer.writeLine("append = output.append");
+        writer.writeLine();
+
+        // cells past the end of the tape are caught by the range check of the tape itself
+        if (!this.wrapMemory) {
+            writer.writeLine("try:");
             writer.updateIndentation(1);
-            writer.writeLine("print(f\"\\nError: Memory index out of bounds {pointer}\")");
-            writer.writeLine("exit(1)");
+        }
+
+        this.checkedOffset = 0;
+        if (instructions.length == 0) writer.writeLine("pass");
+        this.writeBody(writer, 0, instructions.length, 0);
+
+        if (!this.wrapMemory) {
+            writer.updateIndentation(-1);
+            writer.writeLine("except IndexError:");
+            writer.updateIndentation(1);
+            writer.writeLine("flush(output)");
+            writer.writeLine("sys.stderr.write(\"\\nError: Memory index out of bounds\\n\")");
+            writer.writeLine("sys.exit(1)");
             writer.updateIndentation(-1);
         }
-        writer.writeLine("return pointer");
+
+        writer.writeLine();
+        writer.writeLine("flush(output)");
         writer.updateIndentation(-1);
         writer.writeLine();
 
+        while (!this.pendingFunctions.isEmpty() && !this.kill.get()) {
+            int start = this.pendingFunctions.remove();
+
+            writer.writeLine();
+            writer.writeLine("def loop" + start + "(memory, pointer, output):");
+            writer.updateIndentation(1);
+            writer.writeLine("append = output.append");
+            writer.writeLine();
+            this.checkedOffset = 0;
+            this.writeLoop(writer, start, Instruction.operand(instructions[start]), 0);
+            writer.writeLine();
+            writer.writeLine("return pointer");
+            writer.updateIndentation(-1);
+            writer.writeLine();
+        }
+
         writer.writeLine();
-        writer.writeLine("def main():");
+        writer.writeLine("if __name__ == \"__main__\":");
         writer.updateIndentation(1);
-        writer.writeLine("memory = np.zeros((MEMORY_SIZE), dtype=np." + datatype + ")");
-        writer.writeLine("pointer = 0");
-        writer.writeLine();
+        writer.writeLine("main()");
+    }
 
-        for (int i = 0; i < processed.length && !this.kill.get(); i++) {
-            if (i % 50 == 0) {
-                double progress = i / (double) processed.length;
-                Utils.runAndWait(() -> notification.setProgress(progress));
-            }
+    /**
+     * Write the instructions in range, moving loops nested too deep into functions of their own.
+     *
+     * @return whether output was written outside of the nested loops
+     */
+    private boolean writeBody(TranslationWriter writer, int from, int to, int depth) throws IOException {
+        boolean output = false;
+
+        for (int i = from; i < to && !this.kill.get(); i++) {
+            this.setProgress(++this.translated);
 
-            char ch = processed[i];
+            long instruction = instructions[i];
+            int opcode = Instruction.opcode(instruction);
 
             // handle pointer movement (> and <)
-            if (ch == ADDRESS) {
-                int sum = jumps[i];
-                writer.writeLine("pointer = updatePointer(pointer, " + sum + ")");
+            if (opcode == Instruction.ADDRESS) {
+                int sum = Instruction.operand(instruction);
+                writer.writeLine(sum > 0 ? "pointer += " + sum : "pointer -= " + -sum);
+                this.writeBoundary(writer, sum > 0);
+                this.checkedOffset = 0;
             }
             // handle value update (+ and -)
-            else if (ch == DATA) {
-                int sum = jumps[i];
-                writer.writeLine("memory[pointer] += np.array(" + sum + ").astype(np." + datatype + ")");
+            else if (opcode == Instruction.DATA) {
+                int sum = Instruction.operand(instruction);
+                String cell = this.cell(writer, instruction);
+                writer.writeLine(cell + " = (" + cell + (sum > 0 ? " + " + sum : " - " + -sum) + ") & " + this.mask);
             }
             // handle output (.)
-            else if (ch == '.') {
-                writer.writeLine("print(chr(memory[pointer]), end='', flush=True)");
+            else if (opcode == Instruction.OUTPUT) {
+                writer.writeLine("append(" + this.cell(writer, instruction) + ")");
+                output = true;
             }
             // handle input (,)
-            else if (ch == ',') {
-                writer.writeLine("memory[pointer] = np.array(ord(sys.stdin.read(1))).astype(np." + datatype + ")");
+            else if (opcode == Instruction.INPUT) {
+                writer.writeLine(this.cell(writer, instruction) + " = read(output)");
             }
-            // handle [-]
-            else if (ch == SET_ZERO) {
-                writer.writeLine("memory[pointer] = 0");
+            // handle [-] and constant stores
+            else if (opcode == Instruction.SET) {
+                long value = Integer.toUnsignedLong(Instruction.operand(instruction)) & ((1L << this.cellSize) - 1);
+                writer.writeLine(this.cell(writer, instruction) + " = " + value);
             }
-            // handle [<]
-            else if (ch == SCAN_ZERO_LEFT) {
-                writer.writeLine("pointer = findZeroLeft(memory, pointer)");
+            // handle multiplication loops such as [->++<], reading the counter once for all targets
+            else if (opcode == Instruction.MULTIPLY) {
+                writer.writeLine("value = memory[pointer]");
+                writer.writeLine("if value:");
+                writer.updateIndentation(1);
+
+                // a store to the counter itself ends the group
+                int last = i;
+                while (last + 1 < to && Instruction.opcode(instructions[last + 1]) == Instruction.MULTIPLY
+                        && Instruction.offset(instructions[last]) != 0) {
+                    last++;
+                }
+                this.translated += last - i;
+
+                int checkedOffset = this.checkedOffset;
+                for (; i <= last; i++) {
+                    int factor = Instruction.operand(instructions[i]);
+                    String cell = this.cell(writer, instructions[i]);
+                    writer.writeLine(cell + " = (" + cell + " + value * " + factor + ") & " + this.mask);
+                }
+                i = last;
+
+                // the checks in the branch are skipped when the counter is zero
+                this.checkedOffset = checkedOffset;
+
+                writer.updateIndentation(-1);
             }
-            // handle [>]
-            else if (ch == SCAN_ZERO_RIGHT) {
-                writer.writeLine("pointer = findZeroRight(memory, pointer)");
+            // handle [<], [<<] and so on
+            else if (opcode == Instruction.SCAN_ZERO_LEFT) {
+                this.writeScan(writer, -Instruction.operand(instruction));
+                this.checkedOffset = 0;
             }
-            // handle loop opening ([)
-            else if (ch == '[') {
-                writer.writeLine("while memory[pointer] != 0:");
-                writer.updateIndentation(1);
+            // handle [>], [>>] and so on
+            else if (opcode == Instruction.SCAN_ZERO_RIGHT) {
+                this.writeScan(writer, Instruction.operand(instruction));
+                this.checkedOffset = 0;
             }
-            // handle loop closing (])
-            else if (ch == ']') {
-                writer.updateIndentation(-1);
+            // handle loops ([ and ])
+            else if (opcode == Instruction.LOOP_START) {
+                if (depth < MAX_NESTING) {
+                    this.writeLoop(writer, i, Instruction.operand(instruction), depth + 1);
+                }
+                else {
+                    writer.writeLine("pointer = loop" + i + "(memory, pointer, output)");
+                    this.pendingFunctions.add(i);
+                }
+
+                i = Instruction.operand(instruction);
+                this.checkedOffset = 0;
             }
         }
 
+        return output;
+    }
+
+    private void writeLoop(TranslationWriter writer, int start, int end, int depth) throws IOException {
+        writer.writeLine("while memory[pointer]:");
+        writer.updateIndentation(1);
+        this.checkedOffset = 0;
+        if (start + 1 == end) writer.writeLine("pass");
+
+        // the output is written in large chunks, checked once per iteration
+        if (this.writeBody(writer, start + 1, end, depth)) {
+            writer.writeLine("if len(output) >= OUTPUT_SIZE:");
+            writer.updateIndentation(1);
+            writer.writeLine("flush(output)");
+            writer.updateIndentation(-1);
+        }
+
         writer.updateIndentation(-1);
-        writer.writeLine();
+    }
 
-        writer.writeLine();
-        writer.writeLine("if __name__ == \"__main__\":");
+    private void writeScan(TranslationWriter writer, int stride) throws IOException {
+        // bytes are searched by the byte array itself, which is much faster than a loop
+        if (this.cellSize == 8 && !this.wrapMemory && Math.abs(stride) == 1) {
+            writer.writeLine(stride > 0 ? "pointer = memory.find(0, pointer)" : "pointer = memory.rfind(0, 0, pointer + 1)");
+            writer.writeLine("if pointer < 0:");
+            writer.updateIndentation(1);
+            writer.writeLine(stride > 0 ? "outOfBounds(output, MEMORY_SIZE)" : "outOfBounds(output, -1)");
+            writer.updateIndentation(-1);
+            return;
+        }
+
+        writer.writeLine("while memory[pointer]:");
         writer.updateIndentation(1);
-        writer.writeLine("main()");
+        writer.writeLine(stride > 0 ? "pointer += " + stride : "pointer -= " + -stride);
+
+        // moving past the end is caught when the cell is read again
+        if (this.wrapMemory || stride < 0) this.writeBoundary(writer, stride > 0);
+
+        writer.updateIndentation(-1);
+    }
+
+    /**
+     * Write the wrap or bounds check of the pointer after it moved in one direction.
+     */
+    private void writeBoundary(TranslationWriter writer, boolean right) throws IOException {
+        writer.writeLine(right ? "if pointer >= MEMORY_SIZE:" : "if pointer < 0:");
+        writer.updateIndentation(1);
+        if (this.wrapMemory) {
+            writer.writeLine(right ? "pointer -= MEMORY_SIZE" : "pointer += MEMORY_SIZE");
+        }
+        else {
+            writer.writeLine("outOfBounds(output, pointer)");
+        }
+        writer.updateIndentation(-1);
+    }
+
+    /**
+     * Get the cell of an instruction, writing the bounds check it needs first.
+     * Negative indices count from the end of the tape in Python, so they wrap around by themselves
+     * but have to be rejected explicitly when the memory does not wrap.
+     */
+    private String cell(TranslationWriter writer, long instruction) throws IOException {
+        int offset = Instruction.offset(instruction);
+        if (offset == 0) return "memory[pointer]";
+
+        if (this.wrapMemory) {
+            // index from the end of the tape so that the offset cell never goes past it
+            return "memory[pointer - " + (offset > 0 ? this.memorySize - offset : -offset) + "]";
+        }
+
+        if (offset < this.checkedOffset) {
+            writer.writeLine("if pointer < " + -offset + ":");
+            writer.updateIndentation(1);
+            writer.writeLine("outOfBounds(output, pointer - " + -offset + ")");
+            writer.updateIndentation(-1);
+            this.checkedOffset = offset;
+        }
+
+        return offset > 0 ? "memory[pointer + " + offset + "]" : "memory[pointer - " + -offset + "]";
     }
 
     @Override
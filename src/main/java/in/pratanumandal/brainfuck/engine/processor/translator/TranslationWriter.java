@@ -8,12 +8,16 @@ public class TranslationWriter implements AutoCloseable {
     private final BufferedWriter writer;
     private int indentation;
 
+    // spaces written before each line, built once per change of indentation
+    private String indent = "";
+
     public TranslationWriter(BufferedWriter writer) {
         this.writer = writer;
     }
 
     public void write(String text) throws IOException {
-        this.writer.write(" ".repeat(indentation * 4) + text);
+        this.writer.write(this.indent);
+        this.writer.write(text);
     }
 
     public void writeLine() throws IOException {
@@ -21,11 +25,13 @@ public class TranslationWriter implements AutoCloseable {
     }
 
     public void writeLine(String text) throws IOException {
-        this.write(text + "\n");
+        this.write(text);
+        this.writer.write('\n');
     }
 
     public void updateIndentation(int delta) {
         this.indentation += delta;
+        this.indent = " ".repeat(this.indentation * 4);
     }
 
     public void flush() throws IOException {
@@ -8,6 +8,7 @@ import in.pratanumandal.brainfuck.engine.processor.Processor;
 import in.pratanumandal.brainfuck.gui.component.NotificationManager;
 import in.pratanumandal.brainfuck.gui.component.TabData;
 import in.pratanumandal.brainfuck.os.windows.WindowsUtils;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.scene.control.Alert;
 import javafx.stage.FileChooser;
@@ -16,15 +17,22 @@ import org.apache.commons.configuration2.ex.ConfigurationException;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class Translator extends Processor {
 
+    private static final int BUFFER_SIZE = 1 << 16;
+
     protected File outputFile;
 
-    protected Integer cellSize;
+    // number of instructions translated, sampled by the notification once per frame
+    private final AtomicInteger progress = new AtomicInteger();
 
     public Translator(TabData tabData) {
         super(tabData);
@@ -68,8 +76,6 @@ public abstract class Translator extends Processor {
 
             this.outputFile = file;
 
-            this.cellSize = Configuration.getCellSize();
-
             try {
                 super.start();
             } catch (UnmatchedBracketException e) {
@@ -97,21 +103,38 @@ public abstract class Translator extends Processor {
 
         notification.addListener(() -> this.stop(false));
 
+        // the translation never waits for the user interface to show its progress
+        int total = Math.max(this.instructions.length, 1);
+        AnimationTimer progressTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                notification.setProgress(progress.get() / (double) total);
+            }
+        };
+        Platform.runLater(progressTimer::start);
+
         try (
-                FileWriter fw = new FileWriter(this.outputFile);
-                BufferedWriter bw = new BufferedWriter(fw);
+                FileChannel channel = FileChannel.open(this.outputFile.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                BufferedWriter bw = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
                 TranslationWriter tw = new TranslationWriter(bw);
         ) {
-            this.doTranslate(notification, tw);
+            this.doTranslate(tw);
         } catch (IOException e) {
             e.printStackTrace();
 
-            Platform.runLater(() -> Utils.addNotification(tabData.getTab().getText() + " export failed"));
+            Platform.runLater(() -> {
+                progressTimer.stop();
+                Utils.addNotification(tabData.getTab().getText() + " export failed");
+            });
             this.stop(false);
             return;
         }
 
-        Platform.runLater(() -> notification.close());
+        Platform.runLater(() -> {
+            progressTimer.stop();
+            notification.close();
+        });
 
         if (this.kill.get()) {
             Platform.runLater(() -> Utils.addNotification(tabData.getTab().getText() + " export terminated"));
@@ -127,7 +150,14 @@ public abstract class Translator extends Processor {
         return outputFile.getName().substring(0, outputFile.getName().length() - this.getExtension().length() - 1);
     }
 
-    public abstract void doTranslate(NotificationManager.Notification notification, TranslationWriter writer) throws IOException;
+    /**
+     * Publish the number of instructions translated so far.
+     */
+    protected void setProgress(int translated) {
+        this.progress.lazySet(translated);
+    }
+
+    public abstract void doTranslate(TranslationWriter writer) throws IOException;
 
     public abstract String getLanguage();
 
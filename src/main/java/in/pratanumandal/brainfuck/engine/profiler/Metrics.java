@@ -0,0 +1,220 @@
+package in.pratanumandal.brainfuck.engine.profiler;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+/**
+ * Live counters of a run.
+ * They are written by the execution thread only and can be sampled from any thread without locking.
+ */
+public class Metrics {
+
+    // memory pools of the heap, whose peak usage is measured from the start of a run
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+
+    private final long startTime;
+    private volatile long stopTime;
+
+    // counted by the interpreter only, -1 for compiled programs
+    private volatile long instructions = -1;
+    private volatile long iterations = -1;
+    private volatile int pointer = -1;
+    private volatile int maxPointer = -1;
+
+    private volatile long bytesWritten;
+    private volatile long bytesRead;
+    private volatile long inputWait;
+
+    // time spent compiling the program, -1 for interpreted programs
+    private volatile long compileTime = -1;
+
+    public Metrics() {
+        this.startTime = System.nanoTime();
+
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * Publish the interpreter counters.
+     */
+    public void update(long instructions, long iterations, int pointer, int maxPointer) {
+        this.instructions = instructions;
+        this.iterations = iterations;
+        this.pointer = pointer;
+        this.maxPointer = maxPointer;
+    }
+
+    /**
+     * Count a code point written, in UTF-8 bytes.
+     */
+    public void write(long codePoint) {
+        this.bytesWritten += utf8Length(codePoint);
+    }
+
+    /**
+     * Count a character read, in UTF-8 bytes, and the time spent waiting for it.
+     */
+    public void read(int character, long waitTime) {
+        this.bytesRead += utf8Length(character);
+        this.inputWait += waitTime;
+    }
+
+    public void setCompileTime(long compileTime) {
+        this.compileTime = compileTime;
+    }
+
+    public void stop() {
+        this.stopTime = System.nanoTime();
+    }
+
+    public Sample sample() {
+        long stopTime = this.stopTime;
+        boolean finished = stopTime != 0;
+        long elapsed = (finished ? stopTime : System.nanoTime()) - this.startTime;
+
+        return new Sample(elapsed, finished, this.instructions, this.iterations, this.pointer, this.maxPointer,
+                this.bytesWritten, this.bytesRead, this.inputWait, this.compileTime, peakHeap());
+    }
+
+    /**
+     * @return the sum of the peak usage of the heap pools, shared by everything running in the application
+     */
+    private static long peakHeap() {
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            MemoryUsage usage = pool.getPeakUsage();
+            if (usage != null) peakHeap += usage.getUsed();
+        }
+        return peakHeap;
+    }
+
+    private static int utf8Length(long codePoint) {
+        if (codePoint < 0x80) return 1;
+        if (codePoint < 0x800) return 2;
+        if (codePoint < 0x10000) return 3;
+        if (codePoint <= Character.MAX_CODE_POINT) return 4;
+        return 3;
+    }
+
+    /**
+     * Immutable snapshot of the counters.
+     */
+    @JsonPropertyOrder({"finished", "elapsedNanos", "instructions", "instructionsPerSecond", "loopIterations",
+            "pointer", "maxPointer", "bytesWritten", "bytesWrittenPerSecond", "bytesRead", "inputWaitNanos", "compileNanos", "peakHeapBytes"})
+    public static class Sample {
+
+        private final long elapsed;
+        private final boolean finished;
+        private final long instructions;
+        private final long iterations;
+        private final int pointer;
+        private final int maxPointer;
+        private final long bytesWritten;
+        private final long bytesRead;
+        private final long inputWait;
+        private final long compileTime;
+        private final long peakHeap;
+
+        Sample(long elapsed, boolean finished, long instructions, long iterations, int pointer, int maxPointer,
+               long bytesWritten, long bytesRead, long inputWait, long compileTime, long peakHeap) {
+            this.elapsed = elapsed;
+            this.finished = finished;
+            this.instructions = instructions;
+            this.iterations = iterations;
+            this.pointer = pointer;
+            this.maxPointer = maxPointer;
+            this.bytesWritten = bytesWritten;
+            this.bytesRead = bytesRead;
+            this.inputWait = inputWait;
+            this.compileTime = compileTime;
+            this.peakHeap = peakHeap;
+        }
+
+        public long getElapsedNanos() {
+            return elapsed;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        public long getInstructions() {
+            return instructions;
+        }
+
+        public long getLoopIterations() {
+            return iterations;
+        }
+
+        public int getPointer() {
+            return pointer;
+        }
+
+        public int getMaxPointer() {
+            return maxPointer;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getInputWaitNanos() {
+            return inputWait;
+        }
+
+        public long getCompileNanos() {
+            return compileTime;
+        }
+
+        public long getPeakHeapBytes() {
+            return peakHeap;
+        }
+
+        public long getInstructionsPerSecond() {
+            return rate(this.instructions, this.elapsed);
+        }
+
+        public long getBytesWrittenPerSecond() {
+            return rate(this.bytesWritten, this.elapsed);
+        }
+
+        /**
+         * @return the rate of a counter per second
+         */
+        public static long rate(long count, long nanos) {
+            if (count < 0 || nanos <= 0) return -1;
+            return (long) (count * 1e9 / nanos);
+        }
+
+        public String toJson() {
+            DefaultPrettyPrinter.Indenter indenter = new DefaultIndenter("    ", DefaultIndenter.SYS_LF);
+            DefaultPrettyPrinter printer = new DefaultPrettyPrinter();
+            printer.indentObjectsWith(indenter);
+
+            try {
+                return new ObjectMapper().writer(printer).writeValueAsString(this);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+    }
+
+}
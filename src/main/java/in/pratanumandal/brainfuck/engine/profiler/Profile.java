@@ -0,0 +1,259 @@
+package in.pratanumandal.brainfuck.engine.profiler;
+
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
+import in.pratanumandal.brainfuck.engine.processor.Processor;
+import in.pratanumandal.brainfuck.engine.processor.optimizer.SourceMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Execution counts of a profiled run mapped back to the source text.
+ */
+public class Profile {
+
+    // maximum length of the loop snippets
+    private static final int SNIPPET_LENGTH = 40;
+
+    private final String text;
+
+    // position of each operator in the text
+    private final int[] positions;
+
+    // execution count of each operator
+    private final long[] counts;
+
+    private final long maxCount;
+
+    private final long totalCount;
+
+    private final List<Loop> loops;
+
+    /**
+     * Build the profile of a run.
+     *
+     * @param text the source text the program was minified from
+     * @param sourceMap the source map of the instructions, relative to the minified program
+     * @param instructions the instructions
+     * @param counts the execution count of each instruction
+     */
+    public Profile(String text, SourceMap sourceMap, long[] instructions, long[] counts) {
+        this.text = text;
+
+        // map the minified program back to the text
+        int operators = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (Processor.isOperator(text.charAt(i))) operators++;
+        }
+
+        this.positions = new int[operators];
+        for (int i = 0, j = 0; i < text.length(); i++) {
+            if (Processor.isOperator(text.charAt(i))) this.positions[j++] = i;
+        }
+
+        // operators folded away take the iteration count of the innermost loop around them
+        this.counts = new long[operators];
+        Arrays.fill(this.counts, -1);
+
+        for (int i = 0; i < instructions.length; i++) {
+            if (Instruction.opcode(instructions[i]) == Instruction.LOOP_START) {
+                int end = Instruction.operand(instructions[i]);
+                Arrays.fill(this.counts, sourceMap.getStart(i), sourceMap.getEnd(end), counts[end]);
+            }
+        }
+
+        for (int i = 0; i < instructions.length; i++) {
+            int opcode = Instruction.opcode(instructions[i]);
+            if (opcode != Instruction.LOOP_START && opcode != Instruction.LOOP_END) {
+                Arrays.fill(this.counts, sourceMap.getStart(i), sourceMap.getEnd(i), counts[i]);
+            }
+        }
+
+        // loop brackets count the entries and iterations of their loop
+        for (int i = 0; i < instructions.length; i++) {
+            int opcode = Instruction.opcode(instructions[i]);
+            if (opcode == Instruction.LOOP_START || opcode == Instruction.LOOP_END) {
+                this.counts[sourceMap.getStart(i)] = counts[i];
+            }
+        }
+
+        long maxCount = 0;
+        for (int i = 0; i < operators; i++) {
+            if (this.counts[i] < 0) this.counts[i] = 1;
+            if (this.counts[i] > maxCount) maxCount = this.counts[i];
+        }
+        this.maxCount = maxCount;
+
+        // prefix sums of the instruction counts
+        long[] prefix = new long[instructions.length + 1];
+        for (int i = 0; i < instructions.length; i++) {
+            prefix[i + 1] = prefix[i] + counts[i];
+        }
+        this.totalCount = prefix[instructions.length];
+
+        int[] lineStarts = lineStarts(text);
+
+        List<Loop> loops = new ArrayList<>();
+        for (int i = 0; i < instructions.length; i++) {
+            if (Instruction.opcode(instructions[i]) != Instruction.LOOP_START) continue;
+
+            int end = Instruction.operand(instructions[i]);
+
+            int start = this.positions[sourceMap.getStart(i)];
+            int stop = this.positions[sourceMap.getEnd(end) - 1] + 1;
+
+            int line = Arrays.binarySearch(lineStarts, start);
+            if (line < 0) line = -line - 2;
+
+            long executed = prefix[end + 1] - prefix[i];
+            double share = this.totalCount == 0 ? 0 : (double) executed / this.totalCount;
+
+            loops.add(new Loop(start, stop, line + 1, start - lineStarts[line] + 1,
+                    snippet(text, start, stop), counts[end], counts[i], executed, share));
+        }
+
+        loops.sort(Comparator.comparingLong(Loop::getIterations).reversed());
+        this.loops = Collections.unmodifiableList(loops);
+    }
+
+    private static int[] lineStarts(String text) {
+        int[] lineStarts = new int[16];
+        int lines = 1;
+
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') i++;
+            if (ch == '\r' || ch == '\n') {
+                if (lines == lineStarts.length) lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+                lineStarts[lines++] = i + 1;
+            }
+        }
+
+        return Arrays.copyOf(lineStarts, lines);
+    }
+
+    private static String snippet(String text, int start, int end) {
+        StringBuilder snippet = new StringBuilder();
+        for (int i = start; i < end && snippet.length() < SNIPPET_LENGTH; i++) {
+            char ch = text.charAt(i);
+            if (Processor.isOperator(ch)) snippet.append(ch);
+        }
+        if (snippet.length() == SNIPPET_LENGTH) snippet.append("...");
+        return snippet.toString();
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the number of operators in the text
+     */
+    public int size() {
+        return this.positions.length;
+    }
+
+    /**
+     * @param operator the index of the operator
+     * @return the position of the operator in the text
+     */
+    public int getPosition(int operator) {
+        return this.positions[operator];
+    }
+
+    /**
+     * @param operator the index of the operator
+     * @return the number of times the operator was executed
+     */
+    public long getCount(int operator) {
+        return this.counts[operator];
+    }
+
+    public long getMaxCount() {
+        return maxCount;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the loops sorted by the number of iterations, hottest first
+     */
+    public List<Loop> getLoops() {
+        return loops;
+    }
+
+    /**
+     * A loop of the profiled program.
+     */
+    public static class Loop {
+
+        private final int start;
+        private final int end;
+
+        private final int line;
+        private final int column;
+
+        private final String snippet;
+
+        private final long iterations;
+        private final long entries;
+        private final long instructions;
+        private final double share;
+
+        public Loop(int start, int end, int line, int column, String snippet,
+                    long iterations, long entries, long instructions, double share) {
+            this.start = start;
+            this.end = end;
+            this.line = line;
+            this.column = column;
+            this.snippet = snippet;
+            this.iterations = iterations;
+            this.entries = entries;
+            this.instructions = instructions;
+            this.share = share;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        public String getSnippet() {
+            return snippet;
+        }
+
+        public long getIterations() {
+            return iterations;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getInstructions() {
+            return instructions;
+        }
+
+        public double getShare() {
+            return share;
+        }
+
+    }
+
+}
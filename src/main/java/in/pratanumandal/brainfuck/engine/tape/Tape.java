@@ -0,0 +1,40 @@
+package in.pratanumandal.brainfuck.engine.tape;
+
+public interface Tape {
+
+    int size();
+
+    int get(int index);
+
+    long getCodePoint(int index);
+
+    void set(int index, int value);
+
+    void add(int index, int delta);
+
+    boolean isZero(int index);
+
+    void clear();
+
+    /**
+     * Find first zero in memory at or to the left of position, moving by stride cells.
+     * Returns the first negative position reached if there is none.
+     */
+    int findZeroLeft(int position, int stride);
+
+    /**
+     * Find first zero in memory at or to the right of position, moving by stride cells.
+     * Returns the first position past the end of memory reached if there is none.
+     */
+    int findZeroRight(int position, int stride);
+
+    static Tape getTape(int cellSize, int memorySize) {
+        switch (cellSize) {
+            case 8: return new Tape8(memorySize);
+            case 16: return new Tape16(memorySize);
+            case 32: return new Tape32(memorySize);
+            default: return null;
+        }
+    }
+
+}
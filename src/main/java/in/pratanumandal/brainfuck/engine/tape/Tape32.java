@@ -0,0 +1,124 @@
+package in.pratanumandal.brainfuck.engine.tape;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+public final class Tape32 implements Tape {
+
+    // view of the cells as little endian values and words so that lower addresses are in lower bits
+    private static final VarHandle CELLS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long LOW_BITS = 0x7FFFFFFF7FFFFFFFL;
+
+    private final byte[] cells;
+
+    public Tape32(int size) {
+        this.cells = new byte[size << 2];
+    }
+
+    public byte[] getCells() {
+        return cells;
+    }
+
+    /**
+     * Read the cell at index of the raw cells, also used by compiled programs.
+     */
+    public static int load(byte[] cells, int index) {
+        return (int) CELLS.get(cells, index << 2);
+    }
+
+    /**
+     * Write the cell at index of the raw cells, also used by compiled programs.
+     */
+    public static void store(byte[] cells, int index, int value) {
+        CELLS.set(cells, index << 2, value);
+    }
+
+    @Override
+    public int size() {
+        return cells.length >> 2;
+    }
+
+    @Override
+    public int get(int index) {
+        return load(cells, index);
+    }
+
+    @Override
+    public long getCodePoint(int index) {
+        return Integer.toUnsignedLong(load(cells, index));
+    }
+
+    @Override
+    public void set(int index, int value) {
+        store(cells, index, value);
+    }
+
+    @Override
+    public void add(int index, int delta) {
+        store(cells, index, load(cells, index) + delta);
+    }
+
+    @Override
+    public boolean isZero(int index) {
+        return load(cells, index) == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+    }
+
+    @Override
+    public int findZeroLeft(int position, int stride) {
+        int i = position;
+
+        if (stride == 1) {
+            // test two cells at a time
+            for (; i >= 1; i -= 2) {
+                long zeros = zeroCells((long) WORDS.get(cells, (i - 1) << 2));
+                if (zeros != 0) {
+                    return i - 1 + ((63 - Long.numberOfLeadingZeros(zeros)) >>> 5);
+                }
+            }
+        }
+
+        while (i >= 0 && load(cells, i) != 0) {
+            i -= stride;
+        }
+        return i;
+    }
+
+    @Override
+    public int findZeroRight(int position, int stride) {
+        int i = position;
+        int size = this.size();
+
+        if (stride == 1) {
+            // test two cells at a time
+            for (; i <= size - 2; i += 2) {
+                long zeros = zeroCells((long) WORDS.get(cells, i << 2));
+                if (zeros != 0) {
+                    return i + (Long.numberOfTrailingZeros(zeros) >>> 5);
+                }
+            }
+        }
+
+        while (i < size && load(cells, i) != 0) {
+            i += stride;
+        }
+        return i;
+    }
+
+    /**
+     * Set the high bit of every zero cell in the word and clear all other bits.
+     */
+    private static long zeroCells(long word) {
+        long low = (word & LOW_BITS) + LOW_BITS;
+        return ~(low | word | LOW_BITS);
+    }
+
+}
@@ -0,0 +1,108 @@
+package in.pratanumandal.brainfuck.engine.tape;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+public final class Tape8 implements Tape {
+
+    // view of the cells as little endian words so that lower addresses are in lower bits
+    private static final VarHandle WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private final byte[] cells;
+
+    public Tape8(int size) {
+        this.cells = new byte[size];
+    }
+
+    public byte[] getCells() {
+        return cells;
+    }
+
+    @Override
+    public int size() {
+        return cells.length;
+    }
+
+    @Override
+    public int get(int index) {
+        return cells[index];
+    }
+
+    @Override
+    public long getCodePoint(int index) {
+        return Byte.toUnsignedLong(cells[index]);
+    }
+
+    @Override
+    public void set(int index, int value) {
+        cells[index] = (byte) value;
+    }
+
+    @Override
+    public void add(int index, int delta) {
+        cells[index] += delta;
+    }
+
+    @Override
+    public boolean isZero(int index) {
+        return cells[index] == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+    }
+
+    @Override
+    public int findZeroLeft(int position, int stride) {
+        int i = position;
+
+        if (stride == 1) {
+            // test eight cells at a time
+            for (; i >= 7; i -= 8) {
+                long zeros = zeroBytes((long) WORDS.get(cells, i - 7));
+                if (zeros != 0) {
+                    return i - 7 + ((63 - Long.numberOfLeadingZeros(zeros)) >>> 3);
+                }
+            }
+        }
+
+        while (i >= 0 && cells[i] != 0) {
+            i -= stride;
+        }
+        return i;
+    }
+
+    @Override
+    public int findZeroRight(int position, int stride) {
+        int i = position;
+
+        if (stride == 1) {
+            // test eight cells at a time
+            for (; i <= cells.length - 8; i += 8) {
+                long zeros = zeroBytes((long) WORDS.get(cells, i));
+                if (zeros != 0) {
+                    return i + (Long.numberOfTrailingZeros(zeros) >>> 3);
+                }
+            }
+        }
+
+        while (i < cells.length && cells[i] != 0) {
+            i += stride;
+        }
+        return i;
+    }
+
+    /**
+     * Set the high bit of every zero byte in the word and clear all other bits.
+     */
+    private static long zeroBytes(long word) {
+        long low = (word & LOW_BITS) + LOW_BITS;
+        return ~(low | word | LOW_BITS);
+    }
+
+}
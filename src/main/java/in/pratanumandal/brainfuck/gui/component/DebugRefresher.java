@@ -0,0 +1,116 @@
+package in.pratanumandal.brainfuck.gui.component;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.BitSet;
+
+/**
+ * Publishes the state of a debugged program to the user interface once per frame.
+ * The debugger thread only marks what changed, so fast stepping does not flood the event queue.
+ */
+public class DebugRefresher extends AnimationTimer {
+
+    private final TabData tabData;
+
+    // cells changed since the last frame, swapped with the published set under the lock
+    private BitSet dirty;
+    private BitSet published;
+    private boolean allDirty;
+
+    private volatile int pointer;
+    private volatile int position = -1;
+
+    private int shownPointer = -1;
+    private int shownPosition = -1;
+
+    public DebugRefresher(TabData tabData) {
+        this.tabData = tabData;
+
+        this.dirty = new BitSet();
+        this.published = new BitSet();
+    }
+
+    public synchronized void markCell(int index) {
+        this.dirty.set(index);
+    }
+
+    public synchronized void markAll() {
+        this.allDirty = true;
+    }
+
+    public void setPointer(int pointer) {
+        this.pointer = pointer;
+    }
+
+    /**
+     * Set the position of the code being executed.
+     */
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    @Override
+    public void start() {
+        this.shownPointer = -1;
+        this.shownPosition = -1;
+
+        super.start();
+    }
+
+    /**
+     * Publish the last changes and stop refreshing.
+     */
+    @Override
+    public void stop() {
+        if (Platform.isFxApplicationThread()) {
+            super.stop();
+            this.refresh();
+        }
+        else {
+            Platform.runLater(this::stop);
+        }
+    }
+
+    @Override
+    public void handle(long now) {
+        this.refresh();
+    }
+
+    private void refresh() {
+        boolean allDirty;
+        synchronized (this) {
+            BitSet dirty = this.dirty;
+            this.dirty = this.published;
+            this.published = dirty;
+
+            allDirty = this.allDirty;
+            this.allDirty = false;
+        }
+
+        // the rows read the cells when shown
+        if (allDirty) {
+            tabData.getTableView().refresh();
+        }
+        else {
+            for (int i = this.published.nextSetBit(0); i >= 0; i = this.published.nextSetBit(i + 1)) {
+                tabData.getMemory().update(i);
+            }
+        }
+        this.published.clear();
+
+        int pointer = this.pointer;
+        if (pointer != this.shownPointer) {
+            tabData.setCurrentMemoryPointer(pointer);
+            this.shownPointer = pointer;
+        }
+
+        int position = this.position;
+        if (position != this.shownPosition && position >= 0) {
+            tabData.getCodePad().selectRange(position, position + 1);
+            tabData.getCodePad().requestFollowCaret();
+            this.shownPosition = position;
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package in.pratanumandal.brainfuck.gui.component;
+
+import in.pratanumandal.brainfuck.common.Configuration;
+import in.pratanumandal.brainfuck.common.Constants;
+import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.engine.profiler.Metrics;
+import in.pratanumandal.brainfuck.os.windows.WindowsUtils;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
+import javafx.scene.layout.GridPane;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Status panel showing the live metrics of a run.
+ */
+public class MetricsPane extends GridPane {
+
+    private static final String NOT_AVAILABLE = "n/a";
+
+    private final Label elapsed;
+    private final Label instructions;
+    private final Label instructionRate;
+    private final Label iterations;
+    private final Label pointer;
+    private final Label maxPointer;
+    private final Label written;
+    private final Label writeRate;
+    private final Label read;
+    private final Label inputWait;
+    private final Label compileTime;
+    private final Label peakHeap;
+
+    // previous sample to compute the current rates
+    private Metrics.Sample previous;
+
+    private final MenuItem saveMetrics;
+
+    public MetricsPane() {
+        this.getStyleClass().add("metrics");
+
+        this.setHgap(10);
+        this.setVgap(2);
+
+        this.elapsed = this.addRow("Elapsed");
+        this.instructions = this.addRow("Instructions");
+        this.instructionRate = this.addRow("Instructions/s");
+        this.iterations = this.addRow("Loop iterations");
+        this.pointer = this.addRow("Pointer");
+        this.maxPointer = this.addRow("Max pointer");
+        this.written = this.addRow("Output");
+        this.writeRate = this.addRow("Output/s");
+        this.read = this.addRow("Input");
+        this.inputWait = this.addRow("Input wait");
+        this.compileTime = this.addRow("Compilation");
+        this.peakHeap = this.addRow("Peak heap");
+
+        this.saveMetrics = new MenuItem("Save Metrics");
+        this.saveMetrics.setOnAction(event -> this.saveMetrics());
+
+        ContextMenu contextMenu = new ContextMenu(this.saveMetrics);
+        this.setOnContextMenuRequested(event -> {
+            this.saveMetrics.setDisable(this.previous == null || !this.previous.isFinished());
+            contextMenu.show(this, event.getScreenX(), event.getScreenY());
+        });
+
+        this.reset();
+    }
+
+    private Label addRow(String name) {
+        Label nameLabel = new Label(name);
+        nameLabel.getStyleClass().add("metrics-name");
+
+        Label valueLabel = new Label();
+        valueLabel.getStyleClass().add("metrics-value");
+
+        this.addRow(this.getRowCount(), nameLabel, valueLabel);
+
+        return valueLabel;
+    }
+
+    /**
+     * Clear the metrics for a new run.
+     */
+    public void reset() {
+        this.previous = null;
+
+        for (Label label : new Label[] { elapsed, instructions, instructionRate, iterations, pointer,
+                maxPointer, written, writeRate, read, inputWait, compileTime, peakHeap }) {
+            label.setText("-");
+        }
+    }
+
+    /**
+     * Show a sample of the metrics.
+     * Rates are measured since the previous sample while running and over the whole run once finished.
+     */
+    public void update(Metrics.Sample sample) {
+        long interval = this.previous == null ? sample.getElapsedNanos() : sample.getElapsedNanos() - this.previous.getElapsedNanos();
+
+        long instructionRate;
+        long writeRate;
+        if (sample.isFinished() || this.previous == null) {
+            instructionRate = sample.getInstructionsPerSecond();
+            writeRate = sample.getBytesWrittenPerSecond();
+        }
+        else {
+            instructionRate = Metrics.Sample.rate(sample.getInstructions() - this.previous.getInstructions(), interval);
+            writeRate = Metrics.Sample.rate(sample.getBytesWritten() - this.previous.getBytesWritten(), interval);
+        }
+
+        this.elapsed.setText(Utils.nanoToBestFitTimeUnits(sample.getElapsedNanos()));
+
+        if (sample.getInstructions() < 0) {
+            this.instructions.setText(NOT_AVAILABLE);
+            this.instructionRate.setText(NOT_AVAILABLE);
+            this.iterations.setText(NOT_AVAILABLE);
+            this.pointer.setText(NOT_AVAILABLE);
+            this.maxPointer.setText(NOT_AVAILABLE);
+        }
+        else {
+            this.instructions.setText(String.format("%,d", sample.getInstructions()));
+            this.instructionRate.setText(String.format("%,d", Math.max(instructionRate, 0)));
+            this.iterations.setText(String.format("%,d", sample.getLoopIterations()));
+            this.pointer.setText(String.valueOf(sample.getPointer()));
+            this.maxPointer.setText(String.valueOf(sample.getMaxPointer()));
+        }
+
+        this.written.setText(Utils.bytesToBestFitUnits(sample.getBytesWritten()));
+        this.writeRate.setText(Utils.bytesToBestFitUnits(Math.max(writeRate, 0)));
+        this.read.setText(Utils.bytesToBestFitUnits(sample.getBytesRead()));
+
+        long percent = sample.getElapsedNanos() > 0 ? sample.getInputWaitNanos() * 100 / sample.getElapsedNanos() : 0;
+        this.inputWait.setText(Utils.nanoToBestFitTimeUnits(sample.getInputWaitNanos()) + " (" + percent + "%)");
+
+        this.compileTime.setText(sample.getCompileNanos() < 0 ? NOT_AVAILABLE : Utils.nanoToBestFitTimeUnits(sample.getCompileNanos()));
+        this.peakHeap.setText(Utils.bytesToBestFitUnits(sample.getPeakHeapBytes()));
+
+        this.previous = sample;
+    }
+
+    private void saveMetrics() {
+        FileChooser fileChooser = new FileChooser();
+
+        fileChooser.setTitle(Constants.APPLICATION_NAME);
+        fileChooser.setInitialDirectory(Configuration.getInitialDirectory());
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON files (*.json)", "*.json"));
+
+        File file = fileChooser.showSaveDialog(this.getScene().getWindow());
+
+        if (file != null) {
+            Configuration.setInitialDirectory(file.getParentFile());
+            try {
+                Configuration.flush();
+            } catch (ConfigurationException | IOException e) {
+                Alert error = new Alert(Alert.AlertType.ERROR, "Failed to save configuration!");
+                WindowsUtils.setStageStyle((Stage) error.getDialogPane().getScene().getWindow());
+                error.initOwner(this.getScene().getWindow());
+                error.showAndWait();
+            }
+
+            try {
+                Files.writeString(file.toPath(), this.previous.toJson(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                Alert error = new Alert(Alert.AlertType.ERROR, "Failed to save metrics!");
+                WindowsUtils.setStageStyle((Stage) error.getDialogPane().getScene().getWindow());
+                error.initOwner(this.getScene().getWindow());
+                error.showAndWait();
+            }
+        }
+    }
+
+}
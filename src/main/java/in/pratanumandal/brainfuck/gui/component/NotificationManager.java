@@ -47,6 +47,7 @@ public class NotificationManager {
         Label label = new Label(text);
         label.setWrapText(true);
         vBox.getChildren().add(label);
+        notification.label = label;
 
         if (progress) {
             ProgressBar progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
@@ -91,6 +92,7 @@ public class NotificationManager {
     public class Notification {
 
         private HBox hBox;
+        private Label label;
         private ProgressBar progressBar;
 
         private List<NotificationListener> listeners;
@@ -103,6 +105,10 @@ public class NotificationManager {
             this.listeners.add(listener);
         }
 
+        public void setText(String text) {
+            label.setText(text);
+        }
+
         public void setProgress(double value) {
             if (progressBar != null) progressBar.setProgress(value);
         }
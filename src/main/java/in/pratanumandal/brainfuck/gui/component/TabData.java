@@ -4,6 +4,7 @@ import in.pratanumandal.brainfuck.common.Configuration;
 import in.pratanumandal.brainfuck.common.Constants;
 import in.pratanumandal.brainfuck.common.Utils;
 import in.pratanumandal.brainfuck.engine.Memory;
+import in.pratanumandal.brainfuck.engine.MemoryList;
 import in.pratanumandal.brainfuck.engine.debugger.Debugger;
 import in.pratanumandal.brainfuck.engine.processor.interpreter.Interpreter;
 import in.pratanumandal.brainfuck.gui.component.terminal.Terminal;
@@ -12,8 +13,6 @@ import in.pratanumandal.brainfuck.gui.highlight.Highlighter;
 import in.pratanumandal.brainfuck.os.windows.WindowsUtils;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ContextMenu;
@@ -48,6 +47,9 @@ public class TabData {
     private final CodePad codePad;
 
     private Button debugResumeButton;
+    private Button debugFastForwardButton;
+    private Button debugRunBackButton;
+    private Button debugStepBackButton;
     private Button debugPauseButton;
     private Button debugStepButton;
     private ToggleButton debugBreakpointButton;
@@ -55,11 +57,14 @@ public class TabData {
     private Button debugCloseButton;
     private Slider debugSpeed;
 
+    private ToggleButton interpretInputButton;
+    private ToggleButton interpretOutputButton;
+    private ToggleButton interpretProfileButton;
     private Button interpretStopButton;
     private Button interpretCloseButton;
 
     private VBox debug;
-    private ObservableList<Memory> memory;
+    private MemoryList memory;
     private TableView<Memory> tableView;
     private TableViewExtra<Memory> tableViewExtra;
 
@@ -68,11 +73,18 @@ public class TabData {
 
     private Interpreter interpreter;
     private Terminal interpretTerminal;
+    private MetricsPane interpretMetrics;
 
     private BracketHighlighter bracketHighlighter;
 
     private String filePath;
 
+    // file read by the interpreter instead of the terminal
+    private File inputFile;
+
+    // file written by the interpreter instead of the terminal
+    private File outputFile;
+
     private boolean modified;
     private boolean untitled;
     private boolean largeFile;
@@ -96,7 +108,7 @@ public class TabData {
         this.filePath = filePath;
         this.modified = false;
         this.dividerPosition = 0.5;
-        this.memory = FXCollections.observableArrayList();
+        this.memory = new MemoryList(0);
 
         if (this.filePath == null) {
             // set tab text
@@ -160,6 +172,30 @@ public class TabData {
         this.debugResumeButton = debugResumeButton;
     }
 
+    public Button getDebugFastForwardButton() {
+        return debugFastForwardButton;
+    }
+
+    public void setDebugFastForwardButton(Button debugFastForwardButton) {
+        this.debugFastForwardButton = debugFastForwardButton;
+    }
+
+    public Button getDebugRunBackButton() {
+        return debugRunBackButton;
+    }
+
+    public void setDebugRunBackButton(Button debugRunBackButton) {
+        this.debugRunBackButton = debugRunBackButton;
+    }
+
+    public Button getDebugStepBackButton() {
+        return debugStepBackButton;
+    }
+
+    public void setDebugStepBackButton(Button debugStepBackButton) {
+        this.debugStepBackButton = debugStepBackButton;
+    }
+
     public Button getDebugPauseButton() {
         return debugPauseButton;
     }
@@ -208,6 +244,30 @@ public class TabData {
         this.debugSpeed = debugSpeed;
     }
 
+    public ToggleButton getInterpretInputButton() {
+        return interpretInputButton;
+    }
+
+    public void setInterpretInputButton(ToggleButton interpretInputButton) {
+        this.interpretInputButton = interpretInputButton;
+    }
+
+    public ToggleButton getInterpretOutputButton() {
+        return interpretOutputButton;
+    }
+
+    public void setInterpretOutputButton(ToggleButton interpretOutputButton) {
+        this.interpretOutputButton = interpretOutputButton;
+    }
+
+    public ToggleButton getInterpretProfileButton() {
+        return interpretProfileButton;
+    }
+
+    public void setInterpretProfileButton(ToggleButton interpretProfileButton) {
+        this.interpretProfileButton = interpretProfileButton;
+    }
+
     public Button getInterpretStopButton() {
         return interpretStopButton;
     }
@@ -224,6 +284,22 @@ public class TabData {
         this.interpretCloseButton = interpretCloseButton;
     }
 
+    public File getInputFile() {
+        return inputFile;
+    }
+
+    public void setInputFile(File inputFile) {
+        this.inputFile = inputFile;
+    }
+
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    public void setOutputFile(File outputFile) {
+        this.outputFile = outputFile;
+    }
+
     public Terminal getDebugTerminal() {
         return debugTerminal;
     }
@@ -240,6 +316,14 @@ public class TabData {
         this.interpretTerminal = interpretTerminal;
     }
 
+    public MetricsPane getInterpretMetrics() {
+        return interpretMetrics;
+    }
+
+    public void setInterpretMetrics(MetricsPane interpretMetrics) {
+        this.interpretMetrics = interpretMetrics;
+    }
+
     public TableView<Memory> getTableView() {
         return tableView;
     }
@@ -255,18 +339,14 @@ public class TabData {
         tableViewExtra.resetRows();
 
         // initialize the memory
-        if (memory.isEmpty() || memory.size() != Configuration.getMemorySize()) {
-            ObservableList<Memory> memory = this.getMemory();
-            memory.clear();
-            for (int i = 0; i < Configuration.getMemorySize(); i++) {
-                memory.add(i, new Memory(i + 1));
-            }
+        if (memory.size() != Configuration.getMemorySize()) {
+            this.memory = new MemoryList(Configuration.getMemorySize());
+            tableView.setItems(this.memory);
         }
 
         // reset memory pointer
-        memory.get(currentMemoryPointer).setCurrent(false);
         this.currentMemoryPointer = 0;
-        memory.get(currentMemoryPointer).setCurrent(true);
+        memory.setPointer(0);
 
         // create context menu
         ContextMenu menu = new ContextMenu();
@@ -318,7 +398,7 @@ public class TabData {
         this.debug = debug;
     }
 
-    public ObservableList<Memory> getMemory() {
+    public MemoryList getMemory() {
         return memory;
     }
 
@@ -401,14 +481,11 @@ public class TabData {
     }
 
     public void setCurrentMemoryPointer(int memoryPointer) {
-        memory.get(currentMemoryPointer).setCurrent(false);
         this.currentMemoryPointer = memoryPointer;
-        memory.get(currentMemoryPointer).setCurrent(true);
+        memory.setPointer(memoryPointer);
 
-        Platform.runLater(() -> {
-            tableViewExtra.scrollToIndex(memoryPointer);
-            tableView.getSelectionModel().select(memoryPointer);
-        });
+        tableViewExtra.scrollToIndex(memoryPointer);
+        tableView.getSelectionModel().select(memoryPointer);
     }
 
     public double getDividerPosition() {
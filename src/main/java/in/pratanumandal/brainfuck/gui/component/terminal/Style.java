@@ -1,42 +1,54 @@
 package in.pratanumandal.brainfuck.gui.component.terminal;
 
-import org.fxmisc.richtext.CodeArea;
-
 public class Style {
 
-    private String text;
     private int start;
-    private StyleClass styleClass;
+    private int length;
+    private final StyleClass styleClass;
 
-    public Style(String text, int start, StyleClass styleClass) {
-        this.text = text;
+    public Style(int start, int length, StyleClass styleClass) {
         this.start = start;
+        this.length = length;
         this.styleClass = styleClass;
     }
 
-    public String getText() {
-        return text;
+    public int getStart() {
+        return start;
     }
 
-    public void setText(String text) {
-        this.text = text;
+    public void setStart(int start) {
+        this.start = start;
     }
 
-    public int getStart() {
-        return start;
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
     }
 
     public int getEnd() {
-        return start + Style.getVirtualLength(text);
+        return start + length;
     }
 
     public StyleClass getStyleClass() {
         return styleClass;
     }
 
-    private static int getVirtualLength(String text) {
-        CodeArea codePad = new CodeArea(text);
-        return codePad.getLength();
+    public void append(String text) {
+        this.length += Style.getVirtualLength(text);
+    }
+
+    /**
+     * Length of the text in the terminal, where \r\n, \r and \n are each a single line break.
+     */
+    public static int getVirtualLength(String text) {
+        int length = text.length();
+        for (int index = text.indexOf("\r\n"); index >= 0; index = text.indexOf("\r\n", index + 2)) {
+            length--;
+        }
+        return length;
     }
 
 }
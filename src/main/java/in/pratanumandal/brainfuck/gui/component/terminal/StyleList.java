@@ -0,0 +1,153 @@
+package in.pratanumandal.brainfuck.gui.component.terminal;
+
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Styles of the terminal text in order of position.
+ *
+ * Styles are only appended at the end and removed from the start, so they are kept in
+ * an array between a head and a tail index and looked up by binary search.
+ * Style positions count all text written since the last clear, the offset is the
+ * length of the text removed from the start of the terminal.
+ */
+public class StyleList {
+
+    // rebase positions before they can overflow
+    private static final int MAX_OFFSET = 1 << 30;
+
+    private Style[] styles = new Style[16];
+    private int head;
+    private int tail;
+    private int offset;
+
+    public synchronized boolean isEmpty() {
+        return this.head == this.tail;
+    }
+
+    /**
+     * Append text with a style, extending the last style if it has the same style class.
+     */
+    public synchronized Style append(String text, StyleClass styleClass) {
+        Style last = this.isEmpty() ? null : this.styles[this.tail - 1];
+
+        if (last != null && last.getStyleClass() == styleClass) {
+            last.append(text);
+            return last;
+        }
+
+        Style style = new Style(last == null ? this.offset : last.getEnd(), Style.getVirtualLength(text), styleClass);
+        this.add(style);
+        return style;
+    }
+
+    /**
+     * Start a new empty style at the end.
+     */
+    public synchronized Style add(StyleClass styleClass) {
+        Style style = new Style(this.isEmpty() ? this.offset : this.styles[this.tail - 1].getEnd(), 0, styleClass);
+        this.add(style);
+        return style;
+    }
+
+    private void add(Style style) {
+        if (this.tail == this.styles.length) {
+            int size = this.tail - this.head;
+
+            // reuse the space before the head if at least half of the array is free
+            Style[] styles = size * 2 > this.styles.length ? new Style[this.styles.length * 2] : this.styles;
+            System.arraycopy(this.styles, this.head, styles, 0, size);
+            Arrays.fill(styles, size, this.tail, null);
+
+            this.styles = styles;
+            this.head = 0;
+            this.tail = size;
+        }
+
+        this.styles[this.tail++] = style;
+    }
+
+    /**
+     * Remove the given length of text from the start of the terminal.
+     */
+    public synchronized void truncate(int length) {
+        int position = this.offset + length;
+
+        while (this.head < this.tail && this.styles[this.head].getEnd() <= position) {
+            this.styles[this.head++] = null;
+        }
+
+        if (this.head < this.tail && this.styles[this.head].getStart() < position) {
+            Style style = this.styles[this.head];
+            style.setLength(style.getEnd() - position);
+            style.setStart(position);
+        }
+
+        this.offset = position;
+
+        if (this.offset > MAX_OFFSET) {
+            for (int i = this.head; i < this.tail; i++) {
+                this.styles[i].setStart(this.styles[i].getStart() - this.offset);
+            }
+            this.offset = 0;
+        }
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(this.styles, this.head, this.tail, null);
+        this.head = 0;
+        this.tail = 0;
+        this.offset = 0;
+    }
+
+    /**
+     * Compute the style spans of a range of the terminal.
+     */
+    public synchronized StyleSpans<Collection<String>> getStyleSpans(int start, int end) {
+        StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
+
+        int position = this.offset + start;
+        int limit = this.offset + end;
+
+        for (int i = this.find(position); i < this.tail && position < limit; i++) {
+            Style style = this.styles[i];
+            int styleEnd = Math.min(style.getEnd(), limit);
+            if (styleEnd <= position) continue;
+
+            if (style.getStart() > position) {
+                spansBuilder.add(Collections.emptyList(), style.getStart() - position);
+                position = style.getStart();
+            }
+
+            spansBuilder.add(Collections.singleton(style.getStyleClass().toString()), styleEnd - position);
+            position = styleEnd;
+        }
+
+        if (position < limit) {
+            spansBuilder.add(Collections.emptyList(), limit - position);
+        }
+
+        return spansBuilder.create();
+    }
+
+    /**
+     * Find the index of the first style ending after the position.
+     */
+    private int find(int position) {
+        int low = this.head;
+        int high = this.tail;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.styles[mid].getEnd() <= position) low = mid + 1;
+            else high = mid;
+        }
+
+        return low;
+    }
+
+}
@@ -1,7 +1,11 @@
 package in.pratanumandal.brainfuck.gui.component.terminal;
 
-import in.pratanumandal.brainfuck.common.SortedLinkedList;
+import in.pratanumandal.brainfuck.common.Configuration;
+import in.pratanumandal.brainfuck.common.Constants;
+import in.pratanumandal.brainfuck.engine.io.InputSource;
+import in.pratanumandal.brainfuck.os.windows.WindowsUtils;
 import javafx.application.Platform;
+import javafx.scene.control.Alert;
 import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.IndexRange;
@@ -9,47 +13,61 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.fxmisc.richtext.Caret;
 import org.fxmisc.richtext.CodeArea;
-import org.fxmisc.richtext.model.StyleSpans;
-import org.fxmisc.richtext.model.StyleSpansBuilder;
 import org.fxmisc.undo.UndoManager;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public class Terminal extends CodeArea {
+public class Terminal extends CodeArea implements InputSource {
 
-    private String existingText;
+    // length of the text written so far, input is typed after it
+    private volatile int existingLength;
     private String readBuffer;
+    private int readIndex;
 
     private Style inputStyle;
 
+    // text dropped from the start beyond the scrollback size, if kept, only used by the spill executor
+    private Path truncatedFile;
+    private Writer truncatedWriter;
+    private final ExecutorService spillExecutor;
+
     private final AtomicBoolean readLock;
     private final AtomicBoolean autoScroll;
 
     private final StringBuilder writeBuffer;
-    private final List<Style> styleList;
+    private final StyleList styleList;
     private final ScheduledFuture<?> future;
 
     private final Object flushLock;
     private final Object writeLock;
-    private StyleClass currentStyleClass;
 
     public Terminal() {
         this("");
     }
 
     public Terminal(String text) {
-        this.existingText = text;
-        super.replaceText(0, this.getLength(), this.existingText);
+        super.replaceText(0, this.getLength(), text);
+        this.existingLength = this.getLength();
 
         this.readBuffer = "";
 
@@ -59,6 +77,14 @@ public class Terminal extends CodeArea {
         this.flushLock = new Object();
         this.writeLock = new Object();
 
+        this.styleList = new StyleList();
+
+        this.spillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "terminal-spill");
+            thread.setDaemon(true);
+            return thread;
+        });
+
         this.getStyleClass().add("terminal");
 
         this.setShowCaret(Caret.CaretVisibility.ON);
@@ -69,9 +95,10 @@ public class Terminal extends CodeArea {
         this.selectionProperty().addListener((obs, oldVal, newVal) -> this.updateEditable());
 
         // disable lock when newline is in input
-        this.textProperty().addListener((obs, oldVal, newVal) -> {
+        this.plainTextChanges().subscribe(change -> {
             if (this.readLock.get()) {
-                if (newVal.substring(this.existingText.length()).contains("\n")) {
+                String input = this.getText(this.existingLength, this.getLength());
+                if (input.contains("\n")) {
                     this.release();
                     this.inputStyle = null;
 
@@ -80,20 +107,19 @@ public class Terminal extends CodeArea {
                 }
                 else {
                     if (this.inputStyle == null) {
-                        this.inputStyle = this.setStyle("", StyleClass.INPUT);
+                        this.inputStyle = this.styleList.add(StyleClass.INPUT);
                     }
 
                     // compute new length
-                    this.inputStyle.setText(this.getText().substring(this.inputStyle.getStart()));
+                    this.inputStyle.setLength(input.length());
 
                     // update highlighting
-                    this.updateHighlighting();
+                    this.updateHighlighting(this.existingLength, this.getLength());
                 }
             }
         });
 
         this.writeBuffer = new StringBuilder();
-        this.styleList = new SortedLinkedList<>(Comparator.comparingInt(Style::getStart));
 
         ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
         this.future = scheduler.scheduleWithFixedDelay(() -> {
@@ -102,47 +128,7 @@ public class Terminal extends CodeArea {
                     String newText = this.writeBuffer.toString();
                     this.writeBuffer.setLength(0);
 
-                    this.existingText += newText;
-
-                    if (this.autoScroll.get()) {
-                        Platform.runLater(() -> {
-                            // set the text
-                            this.replaceText(0, this.getLength(), this.existingText);
-
-                            // update highlighting
-                            this.updateHighlighting();
-
-                            // reset properties
-                            this.moveTo(this.getLength());
-                            this.requestFollowCaret();
-
-                            // forget undo history
-                            this.forgetUndoHistory();
-                        });
-                    } else {
-                        Platform.runLater(() -> {
-                            // get current properties
-                            double scrollLeft = this.getEstimatedScrollX();
-                            double scrollTop = this.getEstimatedScrollY();
-                            int caretPos = this.getCaretPosition();
-                            IndexRange selection = this.getSelection();
-
-                            // set the text
-                            this.replaceText(0, this.getLength(), this.existingText);
-
-                            // update highlighting
-                            this.updateHighlighting();
-
-                            // reset properties
-                            this.scrollXToPixel(scrollLeft);
-                            this.scrollYToPixel(scrollTop);
-                            this.moveTo(caretPos);
-                            this.selectRange(selection.getStart(), selection.getEnd());
-
-                            // forget undo history
-                            this.forgetUndoHistory();
-                        });
-                    }
+                    Platform.runLater(() -> this.append(newText));
                 }
                 synchronized (this.flushLock) {
                     this.flushLock.notifyAll();
@@ -177,6 +163,10 @@ public class Terminal extends CodeArea {
         clearItem.setOnAction(event -> this.clear());
         menu.getItems().add(clearItem);
 
+        MenuItem saveItem = new MenuItem("Save Output");
+        saveItem.setOnAction(event -> this.saveOutput());
+        menu.getItems().add(saveItem);
+
         menu.getItems().add(new SeparatorMenuItem());
 
         CheckMenuItem scrollItem = new CheckMenuItem("Scroll on output");
@@ -189,8 +179,8 @@ public class Terminal extends CodeArea {
     public void deleteText(int start, int end) {
         boolean readLock = this.readLock.get();
         if (readLock &&
-                start >= this.existingText.length() &&
-                end >= this.existingText.length()) {
+                start >= this.existingLength &&
+                end >= this.existingLength) {
             super.deleteText(start, end);
         }
     }
@@ -203,12 +193,12 @@ public class Terminal extends CodeArea {
 
         if (readLock) {
             if (selection.getLength() > 0) {
-                if (selection.getStart() >= this.existingText.length() &&
-                        selection.getEnd() >= this.existingText.length()) {
+                if (selection.getStart() >= this.existingLength &&
+                        selection.getEnd() >= this.existingLength) {
                     editable = true;
                 }
             }
-            else if (caretPosition >= this.existingText.length()) {
+            else if (caretPosition >= this.existingLength) {
                 editable = true;
             }
         }
@@ -218,7 +208,7 @@ public class Terminal extends CodeArea {
     }
 
     public Character readChar() {
-        if (this.readBuffer.isEmpty()) {
+        if (this.readIndex == this.readBuffer.length()) {
             if (this.autoScroll.get()) {
                 Platform.runLater(() -> {
                     this.moveTo(this.getLength());
@@ -238,35 +228,45 @@ public class Terminal extends CodeArea {
                 }
             }
 
-            this.readBuffer = this.getText().substring(this.existingText.length());
-            this.existingText = this.getText();
+            int length = this.getLength();
+            this.readBuffer = this.getText(this.existingLength, length);
+            this.readIndex = 0;
+            this.existingLength = length;
         }
 
-        if (this.readBuffer.isEmpty()) return null;
+        if (this.readIndex == this.readBuffer.length()) return null;
 
-        Character character = this.readBuffer.charAt(0);
-        this.readBuffer = this.readBuffer.substring(1);
+        return this.readBuffer.charAt(this.readIndex++);
+    }
 
-        return character;
+    @Override
+    public int read() {
+        Character character = this.readChar();
+        return character == null ? -1 : character;
+    }
+
+    @Override
+    public boolean available() {
+        return this.readIndex < this.readBuffer.length();
     }
 
     public void write(String text) {
         synchronized (this.writeLock) {
-            this.setStyle(text, StyleClass.OUTPUT);
+            this.styleList.append(text, StyleClass.OUTPUT);
             this.writeBuffer.append(text);
         }
     }
 
     public void writeMessage(String text) {
         synchronized (this.writeLock) {
-            this.setStyle(text, StyleClass.MESSAGE);
+            this.styleList.append(text, StyleClass.MESSAGE);
             this.writeBuffer.append(text);
         }
     }
 
     public void writeError(String text) {
         synchronized (this.writeLock) {
-            this.setStyle(text, StyleClass.ERROR);
+            this.styleList.append(text, StyleClass.ERROR);
             this.writeBuffer.append(text);
         }
     }
@@ -278,26 +278,23 @@ public class Terminal extends CodeArea {
 
     public void reset() {
         this.readBuffer = "";
+        this.readIndex = 0;
         this.inputStyle = null;
-        this.currentStyleClass = StyleClass.OUTPUT;
         this.clear();
     }
 
     public void clear() {
-        this.existingText = "";
-
-        synchronized (this.styleList) {
-            this.styleList.clear();
-        }
-        Platform.runLater(() -> this.updateHighlighting());
+        this.styleList.clear();
 
         if (this.inputStyle != null) {
-            this.inputStyle = this.setStyle("", StyleClass.INPUT);
+            this.inputStyle = this.styleList.add(StyleClass.INPUT);
         }
 
         Platform.runLater(() -> {
-            this.replaceText(0, this.getLength(), this.existingText);
+            this.replaceText(0, this.getLength(), "");
+            this.existingLength = 0;
             this.forgetUndoHistory();
+            this.deleteTruncated();
         });
     }
 
@@ -320,57 +317,150 @@ public class Terminal extends CodeArea {
 
     public void destroy() {
         this.future.cancel(true);
+        this.deleteTruncated();
+        this.spillExecutor.shutdown();
     }
 
-    private void updateHighlighting() {
-        if (this.styleList.isEmpty()) {
-            this.clearStyle(0, this.getLength());
-        }
-        else {
-            this.setStyleSpans(0, this.computeHighlighting());
+    /**
+     * Save the output including the text dropped beyond the scrollback size.
+     */
+    public void saveOutput() {
+        FileChooser fileChooser = new FileChooser();
+
+        fileChooser.setTitle(Constants.APPLICATION_NAME);
+        fileChooser.setInitialDirectory(Configuration.getInitialDirectory());
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text files (*.txt)", "*.txt"));
+
+        File file = fileChooser.showSaveDialog(this.getScene().getWindow());
+
+        if (file != null) {
+            Configuration.setInitialDirectory(file.getParentFile());
+            try {
+                Configuration.flush();
+            } catch (ConfigurationException | IOException e) {
+                Alert error = new Alert(Alert.AlertType.ERROR, "Failed to save configuration!");
+                WindowsUtils.setStageStyle((Stage) error.getDialogPane().getScene().getWindow());
+                error.initOwner(this.getScene().getWindow());
+                error.showAndWait();
+            }
+
+            // the text dropped so far is complete once the spill executor gets to this
+            String text = this.getText();
+            Future<Void> saved = this.spillExecutor.submit(() -> {
+                if (this.truncatedFile != null) {
+                    this.truncatedWriter.flush();
+                    Files.copy(this.truncatedFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    Files.writeString(file.toPath(), text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+                }
+                else {
+                    Files.writeString(file.toPath(), text, StandardCharsets.UTF_8);
+                }
+                return null;
+            });
+
+            try {
+                saved.get();
+            } catch (ExecutionException | InterruptedException e) {
+                Alert error = new Alert(Alert.AlertType.ERROR, "Failed to save output!");
+                WindowsUtils.setStageStyle((Stage) error.getDialogPane().getScene().getWindow());
+                error.initOwner(this.getScene().getWindow());
+                error.showAndWait();
+            }
         }
     }
 
-    private StyleSpans<Collection<String>> computeHighlighting() {
-        StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
+    /**
+     * Append written text after the existing text, ahead of any input being typed.
+     * Only the appended range is styled so the cost does not grow with the existing text.
+     */
+    private void append(String text) {
+        int start = this.existingLength;
+        int length = this.getLength();
 
-        synchronized (this.styleList) {
-            for (Style style : this.styleList) {
-                int length = Math.min(style.getEnd(), this.getLength()) - style.getStart();
-                spansBuilder.add(Collections.singleton(style.getStyleClass().toString()), length);
-            }
+        // insert the text
+        this.insertText(start, text);
+
+        int end = start + this.getLength() - length;
+        this.existingLength = end;
+
+        // update highlighting
+        this.updateHighlighting(start, end);
+
+        // limit the scrollback
+        this.truncate();
+
+        if (this.autoScroll.get()) {
+            this.moveTo(this.getLength());
+            this.requestFollowCaret();
         }
 
-        return spansBuilder.create();
+        // forget undo history
+        this.forgetUndoHistory();
     }
 
-    private Style setStyle(String text, StyleClass styleClass) {
-        Style style;
+    /**
+     * Drop the oldest text once the scrollback size is exceeded, keeping it in a temporary file if configured.
+     */
+    private void truncate() {
+        int scrollbackSize = Configuration.getScrollbackSize();
+        if (this.existingLength <= scrollbackSize) return;
 
-        if (this.currentStyleClass == styleClass) {
-            if (this.styleList.isEmpty()) {
-                style = new Style(text, 0, this.currentStyleClass);
-                this.styleList.add(style);
-            }
-            else {
-                style = this.styleList.get(this.styleList.size() - 1);
-                style.setText(style.getText() + text);
-            }
+        // drop an extra eighth so that truncation does not happen on every append
+        int cut = this.existingLength - scrollbackSize + scrollbackSize / 8;
+
+        if (Configuration.getKeepTruncatedOutput()) {
+            this.keepTruncated(this.getText(0, cut));
         }
-        else {
-            int start = 0;
-            if (!this.styleList.isEmpty()) {
-                Style lastStyle = this.styleList.get(this.styleList.size() - 1);
-                start = lastStyle.getEnd();
+
+        // styles of text not yet appended are kept
+        this.styleList.truncate(cut);
+
+        this.existingLength -= cut;
+        this.replaceText(0, cut, "");
+    }
+
+    /**
+     * Append the dropped text to the temporary file in the background, opening it on the first spill.
+     */
+    private void keepTruncated(String text) {
+        this.spillExecutor.execute(() -> {
+            try {
+                if (this.truncatedFile == null) {
+                    this.truncatedFile = Files.createTempFile("brainfuck-studio-", ".txt");
+                    this.truncatedFile.toFile().deleteOnExit();
+                    this.truncatedWriter = Files.newBufferedWriter(this.truncatedFile, StandardCharsets.UTF_8);
+                }
+                this.truncatedWriter.write(text);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void deleteTruncated() {
+        this.spillExecutor.execute(() -> {
+            if (this.truncatedFile != null) {
+                try {
+                    if (this.truncatedWriter != null) this.truncatedWriter.close();
+                    Files.deleteIfExists(this.truncatedFile);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                this.truncatedFile = null;
+                this.truncatedWriter = null;
             }
+        });
+    }
 
-            this.currentStyleClass = styleClass;
+    private void updateHighlighting(int start, int end) {
+        if (start >= end) return;
 
-            style = new Style(text, start, this.currentStyleClass);
-            this.styleList.add(style);
+        if (this.styleList.isEmpty()) {
+            this.clearStyle(start, end);
+        }
+        else {
+            this.setStyleSpans(start, this.styleList.getStyleSpans(start, end));
         }
-
-        return style;
     }
 
 }
@@ -5,12 +5,14 @@ import in.pratanumandal.brainfuck.common.Constants;
 import in.pratanumandal.brainfuck.common.Snippets;
 import in.pratanumandal.brainfuck.common.Utils;
 import in.pratanumandal.brainfuck.engine.Memory;
+import in.pratanumandal.brainfuck.engine.processor.translator.AssemblyTranslator;
 import in.pratanumandal.brainfuck.engine.processor.translator.CTranslator;
 import in.pratanumandal.brainfuck.engine.processor.translator.JavaTranslator;
 import in.pratanumandal.brainfuck.engine.processor.translator.PythonTranslator;
 import in.pratanumandal.brainfuck.gui.component.CodePad;
 import in.pratanumandal.brainfuck.gui.component.terminal.Terminal;
 import in.pratanumandal.brainfuck.gui.component.DefaultContextMenu;
+import in.pratanumandal.brainfuck.gui.component.MetricsPane;
 import in.pratanumandal.brainfuck.gui.component.NotificationManager;
 import in.pratanumandal.brainfuck.gui.component.TabData;
 import in.pratanumandal.brainfuck.gui.highlight.BracketHighlighter;
@@ -268,6 +270,9 @@ public class Controller {
         final KeyCombination keyComb11 = new KeyCodeCombination(KeyCode.F9, KeyCombination.SHIFT_DOWN);
         final KeyCombination keyComb12 = new KeyCodeCombination(KeyCode.F8);
         final KeyCombination keyComb13 = new KeyCodeCombination(KeyCode.F8, KeyCombination.SHIFT_DOWN);
+        final KeyCombination keyComb14 = new KeyCodeCombination(KeyCode.F9, KeyCombination.SHORTCUT_DOWN);
+        final KeyCombination keyComb15 = new KeyCodeCombination(KeyCode.F7);
+        final KeyCombination keyComb16 = new KeyCodeCombination(KeyCode.F7, KeyCombination.SHIFT_DOWN);
 
         // handle key events
         stage.addEventHandler(KeyEvent.KEY_RELEASED, event -> {
@@ -306,6 +311,15 @@ public class Controller {
                     boolean selected = this.currentTab.getDebugBreakpointButton().isSelected();
                     this.currentTab.getDebugBreakpointButton().setSelected(!selected);
                 }
+                else if (keyComb14.match(event)) {
+                    this.currentTab.getDebugger().fastForward();
+                }
+                else if (keyComb15.match(event)) {
+                    this.currentTab.getDebugger().stepBack();
+                }
+                else if (keyComb16.match(event)) {
+                    this.currentTab.getDebugger().runBack();
+                }
             }
         });
 
@@ -513,6 +527,12 @@ public class Controller {
         debugTools.getChildren().add(debugResumeButton);
         debugResumeButton.setDisable(true);
 
+        Button debugFastForwardButton = generateDebugButton("next", "Run to Breakpoint");
+        debugFastForwardButton.setOnAction(event -> tabData.getDebugger().fastForward());
+        tabData.setDebugFastForwardButton(debugFastForwardButton);
+        debugTools.getChildren().add(debugFastForwardButton);
+        debugFastForwardButton.setDisable(true);
+
         Button debugPauseButton = generateDebugButton("pause", "Pause");
         debugPauseButton.setOnAction(event -> tabData.getDebugger().pause());
         tabData.setDebugPauseButton(debugPauseButton);
@@ -525,6 +545,19 @@ public class Controller {
         debugTools.getChildren().add(debugStepButton);
         debugStepButton.setDisable(true);
 
+        Button debugStepBackButton = generateDebugButton("previous", "Step Back");
+        debugStepBackButton.setOnAction(event -> tabData.getDebugger().stepBack());
+        tabData.setDebugStepBackButton(debugStepBackButton);
+        debugTools.getChildren().add(debugStepBackButton);
+        debugStepBackButton.setDisable(true);
+
+        Button debugRunBackButton = generateDebugButton("run", "Run Back to Breakpoint");
+        debugRunBackButton.getGraphic().setScaleX(-1);
+        debugRunBackButton.setOnAction(event -> tabData.getDebugger().runBack());
+        tabData.setDebugRunBackButton(debugRunBackButton);
+        debugTools.getChildren().add(debugRunBackButton);
+        debugRunBackButton.setDisable(true);
+
         ToggleButton debugBreakpointButton = generateDebugToggleButton("breakpoint",
                 "breakpoint-disabled",
                 "Toggle Breakpoints",
@@ -684,6 +717,60 @@ public class Controller {
         HBox.setHgrow(spacerPane, Priority.ALWAYS);
         interpreterTerminalControls.getChildren().add(spacerPane);
 
+        // add input button
+        ToggleButton interpreterInputButton = new ToggleButton();
+        Image inputImage = new Image(getClass().getClassLoader().getResourceAsStream("images/open.png"));
+        ImageView inputImageView = new ImageView(inputImage);
+        inputImageView.setFitHeight(16);
+        inputImageView.setFitWidth(16);
+        interpreterInputButton.setGraphic(inputImageView);
+        interpreterInputButton.getStyleClass().add("secondary");
+        interpreterTerminalControls.getChildren().add(interpreterInputButton);
+
+        // set interpreter input button
+        tabData.setInterpretInputButton(interpreterInputButton);
+
+        // set input button tooltip
+        Tooltip inputTooltip = new Tooltip("Read input from file");
+        inputTooltip.setShowDelay(Duration.millis(300));
+        interpreterInputButton.setTooltip(inputTooltip);
+
+        // add output button
+        ToggleButton interpreterOutputButton = new ToggleButton();
+        Image outputImage = new Image(getClass().getClassLoader().getResourceAsStream("images/export.png"));
+        ImageView outputImageView = new ImageView(outputImage);
+        outputImageView.setFitHeight(16);
+        outputImageView.setFitWidth(16);
+        interpreterOutputButton.setGraphic(outputImageView);
+        interpreterOutputButton.getStyleClass().add("secondary");
+        interpreterTerminalControls.getChildren().add(interpreterOutputButton);
+
+        // set interpreter output button
+        tabData.setInterpretOutputButton(interpreterOutputButton);
+
+        // set output button tooltip
+        Tooltip outputTooltip = new Tooltip("Write output to file");
+        outputTooltip.setShowDelay(Duration.millis(300));
+        interpreterOutputButton.setTooltip(outputTooltip);
+
+        // add profile button
+        ToggleButton interpreterProfileButton = new ToggleButton();
+        Image profileImage = new Image(getClass().getClassLoader().getResourceAsStream("images/search.png"));
+        ImageView profileImageView = new ImageView(profileImage);
+        profileImageView.setFitHeight(16);
+        profileImageView.setFitWidth(16);
+        interpreterProfileButton.setGraphic(profileImageView);
+        interpreterProfileButton.getStyleClass().add("secondary");
+        interpreterTerminalControls.getChildren().add(interpreterProfileButton);
+
+        // set interpreter profile button
+        tabData.setInterpretProfileButton(interpreterProfileButton);
+
+        // set profile button tooltip
+        Tooltip profileTooltip = new Tooltip("Profile execution");
+        profileTooltip.setShowDelay(Duration.millis(300));
+        interpreterProfileButton.setTooltip(profileTooltip);
+
         // add stop button
         Button interpreterStopButton = new Button();
         Image stopImage = new Image(getClass().getClassLoader().getResourceAsStream("images/stop.png"));
@@ -728,10 +815,21 @@ public class Controller {
         // set the interpreter terminal
         tabData.setInterpretTerminal(interpretTerminal);
 
+        // create the interpreter metrics beside the terminal
+        MetricsPane interpretMetrics = new MetricsPane();
+
+        // set the interpreter metrics
+        tabData.setInterpretMetrics(interpretMetrics);
+
+        HBox interpreterTerminalBox = new HBox();
+        VirtualizedScrollPane<Terminal> interpreterTerminalPane = new VirtualizedScrollPane<>(interpretTerminal);
+        HBox.setHgrow(interpreterTerminalPane, Priority.ALWAYS);
+        interpreterTerminalBox.getChildren().addAll(interpreterTerminalPane, interpretMetrics);
+
         // add interpreter terminal toolbar and interpreter terminal to vbox
         VBox interpreterTerminalToolbar = new VBox();
         interpreterTerminalToolbar.getChildren().add(interpreterTerminalControls);
-        interpreterTerminalToolbar.getChildren().add(new VirtualizedScrollPane<>(interpretTerminal));
+        interpreterTerminalToolbar.getChildren().add(interpreterTerminalBox);
 
         // set style of interpreter toolbar
         interpreterTerminalToolbar.getStyleClass().add("terminal-toolbar");
@@ -760,6 +858,67 @@ public class Controller {
             }
         });
 
+        // add input button action
+        interpreterInputButton.setOnAction(actionEvent -> {
+            if (interpreterInputButton.isSelected()) {
+                FileChooser fileChooser = new FileChooser();
+                fileChooser.setTitle(Constants.APPLICATION_NAME);
+                fileChooser.setInitialDirectory(Configuration.getInitialDirectory());
+
+                File file = fileChooser.showOpenDialog(tabPane.getScene().getWindow());
+
+                if (file != null) {
+                    tabData.setInputFile(file);
+                    inputTooltip.setText("Reading input from " + file.getAbsolutePath());
+                    Utils.addNotification("Input will be read from " + file.getName());
+                }
+                else {
+                    interpreterInputButton.setSelected(false);
+                }
+            }
+            else {
+                tabData.setInputFile(null);
+                inputTooltip.setText("Read input from file");
+                Utils.addNotification("Input will be read from the terminal");
+            }
+        });
+
+        // add output button action
+        interpreterOutputButton.setOnAction(actionEvent -> {
+            if (interpreterOutputButton.isSelected()) {
+                FileChooser fileChooser = new FileChooser();
+                fileChooser.setTitle(Constants.APPLICATION_NAME);
+                fileChooser.setInitialDirectory(Configuration.getInitialDirectory());
+
+                File file = fileChooser.showSaveDialog(tabPane.getScene().getWindow());
+
+                if (file != null) {
+                    tabData.setOutputFile(file);
+                    outputTooltip.setText("Writing output to " + file.getAbsolutePath());
+                    Utils.addNotification("Output will be written to " + file.getName());
+                }
+                else {
+                    interpreterOutputButton.setSelected(false);
+                }
+            }
+            else {
+                tabData.setOutputFile(null);
+                outputTooltip.setText("Write output to file");
+                Utils.addNotification("Output will be written to the terminal");
+            }
+        });
+
+        // add profile button action
+        interpreterProfileButton.setOnAction(actionEvent -> {
+            if (interpreterProfileButton.isSelected()) {
+                Utils.addNotification("Execution will be profiled");
+            }
+            else {
+                Highlighter.clearHeat(tabData);
+                Utils.addNotification("Execution will not be profiled");
+            }
+        });
+
         // add stop button action
         interpreterStopButton.setOnAction(actionEvent -> tabData.getInterpreter().stop());
 
@@ -1559,6 +1718,14 @@ public class Controller {
         translator.start();
     }
 
+    @FXML
+    private void exportToAssembly() {
+        if (tabPane.getTabs().isEmpty()) return;
+
+        AssemblyTranslator translator = new AssemblyTranslator(this.currentTab);
+        translator.start();
+    }
+
     private boolean saveFile(String filePath, String fileText) {
         try {
             Files.writeString(Path.of(filePath), fileText);
@@ -1,42 +1,24 @@
 package in.pratanumandal.brainfuck.gui.highlight;
 
 import in.pratanumandal.brainfuck.common.Configuration;
+import in.pratanumandal.brainfuck.common.SyntaxTokenizer;
 import in.pratanumandal.brainfuck.common.Utils;
+import in.pratanumandal.brainfuck.engine.profiler.Profile;
 import in.pratanumandal.brainfuck.gui.component.CodePad;
 import in.pratanumandal.brainfuck.gui.component.TabData;
 import javafx.application.Platform;
 import org.fxmisc.richtext.model.StyleSpans;
 import org.fxmisc.richtext.model.StyleSpansBuilder;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
 
 public class Highlighter {
 
     private static final Integer MAX_HIGHLIGHTING_LENGTH = 10000;
 
-    private static final String POINTER_INCREMENT_PATTERN = "\\>";
-    private static final String POINTER_DECREMENT_PATTERN = "\\<";
-    private static final String DATA_INCREMENT_PATTERN = "\\+";
-    private static final String DATA_DECREMENT_PATTERN = "\\-";
-    private static final String OUTPUT_PATTERN = "\\.";
-    private static final String INPUT_PATTERN = "\\,";
-    private static final String LOOP_PATTERN = "\\[|\\]";
-    private static final String BREAKPOINT_PATTERN = "\\#";
-
-    private static final Pattern PATTERN = Pattern.compile(
-            "(?<PTRINCR>" + POINTER_INCREMENT_PATTERN + ")"
-                    + "|(?<PTRDECR>" + POINTER_DECREMENT_PATTERN + ")"
-                    + "|(?<DATAINCR>" + DATA_INCREMENT_PATTERN + ")"
-                    + "|(?<DATADECR>" + DATA_DECREMENT_PATTERN + ")"
-                    + "|(?<OUTPUT>" + OUTPUT_PATTERN + ")"
-                    + "|(?<INPUT>" + INPUT_PATTERN + ")"
-                    + "|(?<LOOP>" + LOOP_PATTERN + ")"
-                    + "|(?<BREAKPOINT>" + BREAKPOINT_PATTERN + ")"
-    );
-
     public static void refreshHighlighting(TabData tabData) {
         if (!Configuration.getSyntaxHighlighting()) return;
 
@@ -58,6 +40,70 @@ public class Highlighter {
         Utils.runAndWait(() -> tabData.getCodePad().setStyle(start, end, Collections.singleton("plain-text")));
     }
 
+    /**
+     * Overlay the execution counts of a profile on the code as heat-0 (coldest) to heat-9 (hottest).
+     * Nothing is shown if the code was modified since the profiled run started.
+     */
+    public static void highlightHeat(TabData tabData, Profile profile) {
+        CodePad codePad = tabData.getCodePad();
+        if (!codePad.getText().equals(profile.getText())) return;
+
+        StyleSpans<Collection<String>> heatSpans = computeHeat(profile);
+        StyleSpans<Collection<String>> styleSpans = codePad.getStyleSpans(0, codePad.getLength()).overlay(heatSpans, (style, heat) -> {
+            // replace the heat of a previous profile
+            List<String> merged = new ArrayList<>();
+            for (String styleClass : style) {
+                if (!styleClass.startsWith("heat-")) merged.add(styleClass);
+            }
+            merged.addAll(heat);
+            return merged;
+        });
+
+        codePad.setStyleSpans(0, styleSpans);
+    }
+
+    /**
+     * Remove the heat map by restoring the plain highlighting.
+     */
+    public static void clearHeat(TabData tabData) {
+        if (Configuration.getSyntaxHighlighting()) refreshHighlighting(tabData);
+        else clearHighlighting(tabData);
+    }
+
+    static StyleSpans<Collection<String>> computeHeat(Profile profile) {
+        StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
+
+        // levels are logarithmic as counts of nested loops grow exponentially
+        double scale = profile.getMaxCount() > 1 ? 9 / Math.log(profile.getMaxCount()) : 0;
+
+        int lastEnd = 0;
+        int i = 0;
+        while (i < profile.size()) {
+            long count = profile.getCount(i);
+            if (count == 0) {
+                i++;
+                continue;
+            }
+
+            int level = (int) (Math.log(count) * scale);
+
+            // extend the span over adjacent operators of the same level
+            int start = profile.getPosition(i);
+            int end = start + 1;
+            for (i++; i < profile.size() && profile.getPosition(i) == end; i++, end++) {
+                long next = profile.getCount(i);
+                if (next == 0 || (int) (Math.log(next) * scale) != level) break;
+            }
+
+            spansBuilder.add(Collections.emptyList(), start - lastEnd);
+            spansBuilder.add(Collections.singleton("heat-" + level), end - start);
+            lastEnd = end;
+        }
+
+        spansBuilder.add(Collections.emptyList(), profile.getText().length() - lastEnd);
+        return spansBuilder.create();
+    }
+
     private static void doUpdate(TabData tabData, int start, int end) {
         synchronized (tabData) {
             CodePad codePad = tabData.getCodePad();
@@ -98,28 +144,16 @@ public class Highlighter {
     }
 
     private static StyleSpans<Collection<String>> computeHighlighting(String text) {
-        Matcher matcher = PATTERN.matcher(text);
         StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
 
-        int lastKwEnd = 0;
-        while(matcher.find()) {
-            String styleClass =
-                    matcher.group("PTRINCR") != null ? "increment-pointer" :
-                            matcher.group("PTRDECR") != null ? "decrement-pointer" :
-                                    matcher.group("DATAINCR") != null ? "increment-data" :
-                                            matcher.group("DATADECR") != null ? "decrement-data" :
-                                                    matcher.group("INPUT") != null ? "input" :
-                                                            matcher.group("OUTPUT") != null ? "output" :
-                                                                    matcher.group("LOOP") != null ? "loop" :
-                                                                            matcher.group("BREAKPOINT") != null ? "breakpoint" :
-                                                                                    null; /* never happens */ assert styleClass != null;
-
-            spansBuilder.add(Collections.singleton("plain-text"), matcher.start() - lastKwEnd);
-            spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
-            lastKwEnd = matcher.end();
-        }
+        int[] lastKwEnd = { 0 };
+        SyntaxTokenizer.tokenize(text, (styleClass, start, end) -> {
+            spansBuilder.add(Collections.singleton("plain-text"), start - lastKwEnd[0]);
+            spansBuilder.add(Collections.singleton(styleClass), end - start);
+            lastKwEnd[0] = end;
+        });
 
-        spansBuilder.add(Collections.singleton("plain-text"), text.length() - lastKwEnd);
+        spansBuilder.add(Collections.singleton("plain-text"), text.length() - lastKwEnd[0]);
         return spansBuilder.create();
     }
 
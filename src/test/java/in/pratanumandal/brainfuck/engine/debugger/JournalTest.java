@@ -0,0 +1,29 @@
+package in.pratanumandal.brainfuck.engine.debugger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JournalTest {
+
+    @Test
+    public void keepsSnapshotsWithinBudget() {
+        int memorySize = 50000;
+        Journal journal = new Journal(1000000, 100, 32, memorySize, tape -> { });
+
+        for (int i = 0; i < 2500000; i++) {
+            journal.record(0, Journal.NONE, 0, 0);
+        }
+
+        assertTrue(journal.getInterval() > 100);
+        assertTrue((long) journal.getSnapshotCount() * memorySize * 4 <= Journal.SNAPSHOT_BUDGET);
+    }
+
+    @Test
+    public void keepsIntervalWithinBudget() {
+        Journal journal = new Journal(10000, 100, 8, 1000, tape -> { });
+        assertEquals(100, journal.getInterval());
+    }
+
+}
@@ -0,0 +1,38 @@
+package in.pratanumandal.brainfuck.engine.processor.optimizer;
+
+import in.pratanumandal.brainfuck.engine.processor.Instruction;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OptimizerTest {
+
+    private static final int MEMORY_SIZE = 1000;
+
+    @Test
+    public void keepsLoopAfterGoingRoundTheTapeRight() {
+        assertTrue(this.hasOutput("+" + ">".repeat(MEMORY_SIZE) + "[.-]"));
+        assertTrue(this.hasOutput("+" + ">".repeat(MEMORY_SIZE - 1) + ">[.-]"));
+    }
+
+    @Test
+    public void keepsLoopAfterGoingRoundTheTapeLeft() {
+        assertTrue(this.hasOutput("+" + "<".repeat(MEMORY_SIZE) + "[.-]"));
+        assertTrue(this.hasOutput(">+" + "<".repeat(MEMORY_SIZE + 1) + ">[.-]"));
+    }
+
+    @Test
+    public void removesLoopOnUnwrittenCell() {
+        assertFalse(this.hasOutput("+>[.-]"));
+        assertFalse(this.hasOutput("+" + ">".repeat(MEMORY_SIZE - 1) + "[.-]"));
+    }
+
+    private boolean hasOutput(String code) {
+        long[] instructions = Optimizer.optimize(code, 8, MEMORY_SIZE);
+        return Arrays.stream(instructions).anyMatch(instruction -> Instruction.opcode(instruction) == Instruction.OUTPUT);
+    }
+
+}
@@ -0,0 +1,64 @@
+package in.pratanumandal.brainfuck.engine.tape;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TapeTest {
+
+    private static final int MEMORY_SIZE = 200;
+
+    @ParameterizedTest
+    @ValueSource(ints = { 8, 16, 32 })
+    public void findsZerosLikeSingleSteps(int cellSize) {
+        Random random = new Random(cellSize);
+        Tape tape = Tape.getTape(cellSize, MEMORY_SIZE);
+
+        for (int run = 0; run < 2000; run++) {
+            // zeros of varying density between random cells and cells with a single bit set
+            int zeroChance = 1 + random.nextInt(40);
+            for (int i = 0; i < MEMORY_SIZE; i++) {
+                int value = random.nextBoolean() ? random.nextInt() : 1 << random.nextInt(cellSize);
+                tape.set(i, random.nextInt(zeroChance) == 0 ? 0 : value);
+            }
+
+            int position = random.nextInt(MEMORY_SIZE);
+            int stride = 1 + random.nextInt(3);
+
+            assertEquals(findZeroLeft(tape, position, stride), tape.findZeroLeft(position, stride));
+            assertEquals(findZeroRight(tape, position, stride), tape.findZeroRight(position, stride));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 8, 16, 32 })
+    public void keepsCellValues(int cellSize) {
+        Tape tape = Tape.getTape(cellSize, MEMORY_SIZE);
+
+        tape.set(3, -1);
+        tape.add(4, -1);
+        tape.add(4, 2);
+
+        assertEquals((1L << cellSize) - 1, tape.getCodePoint(3));
+        assertEquals(1, tape.get(4));
+        assertEquals(0, tape.get(2));
+        assertEquals(0, tape.get(5));
+        assertEquals(MEMORY_SIZE, tape.size());
+    }
+
+    private static int findZeroLeft(Tape tape, int position, int stride) {
+        int i = position;
+        while (i >= 0 && !tape.isZero(i)) i -= stride;
+        return i;
+    }
+
+    private static int findZeroRight(Tape tape, int position, int stride) {
+        int i = position;
+        while (i < tape.size() && !tape.isZero(i)) i += stride;
+        return i;
+    }
+
+}